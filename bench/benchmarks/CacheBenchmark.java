@@ -0,0 +1,316 @@
+package benchmarks;
+
+import dataStructures.classes.LatencyHistogram;
+import observerPattern.classes.KeyStatsListener;
+import observerPattern.classes.StatsListener;
+import observerPattern.interfaces.CacheListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput and the latency of the caches, for every combination of cache, key
+ * distribution, capacity, thread count, value size and listener given on the command line. Each
+ * combination runs a few warm-up iterations, whose results are discarded so the JIT compiler can
+ * settle, then the measured iterations. Latency is sampled on one operation out of SAMPLE_PERIOD,
+ * so that reading the clock does not dominate the cost of a hit.
+ *
+ * <p>Usage: java -cp out benchmarks.CacheBenchmark [--option value ...], where the options are
+ * listed in DEFAULTS; list-valued options take comma-separated values.
+ */
+public final class CacheBenchmark {
+    private static final int OPERATIONS_PER_THREAD = 1 << 20;
+    private static final int SAMPLE_PERIOD = 64;
+    private static final int VALUES_PER_SIZE = 16;
+    private static final double PERCENT = 100.0;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+
+    private static final String[][] DEFAULTS = {
+        {"caches", "lru,fifo,tiny_lfu,arc,time,concurrent-lru,file-lru,file-fifo,file-tiny_lfu,"
+                + "file-arc"},
+        {"distributions", "uniform,zipf,scan"},
+        {"keys", "100000"},
+        {"capacities", "1000,10000"},
+        {"threads", "1,4"},
+        {"value-sizes", "128"},
+        {"listeners", "none,stats"},
+        {"read-ratio", "0.9"},
+        {"warmup", "2"},
+        {"iterations", "3"},
+        {"time", "1000"},
+    };
+
+    private static volatile boolean stopped;
+    private static volatile long sink;
+
+    private CacheBenchmark() {
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        HashMap<String, String> options = parseOptions(args);
+
+        int keyCount = Integer.parseInt(options.get("keys"));
+        double readRatio = Double.parseDouble(options.get("read-ratio"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int iterations = Integer.parseInt(options.get("iterations"));
+        long timeMillis = Long.parseLong(options.get("time"));
+
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "/benchmark/file-" + i;
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-15s %-8s %9s %7s %6s %-6s %12s %8s"
+                        + " %8s %8s %8s", "cache", "keys", "capacity", "threads", "value",
+                "listen", "ops/s", "hit%", "p50 ns", "p99 ns", "p999 ns"));
+
+        for (String cache : split(options.get("caches"))) {
+            for (String distributionName : split(options.get("distributions"))) {
+                Workload.Distribution distribution = Workload.Distribution.valueOf(
+                        distributionName.toUpperCase(Locale.ROOT));
+                for (String capacity : split(options.get("capacities"))) {
+                    for (String threads : split(options.get("threads"))) {
+                        for (String valueSize : split(options.get("value-sizes"))) {
+                            for (String listener : split(options.get("listeners"))) {
+                                Configuration configuration = new Configuration(cache,
+                                        distribution, keyCount, Integer.parseInt(capacity),
+                                        Integer.parseInt(threads), Integer.parseInt(valueSize),
+                                        listener, readRatio);
+                                run(configuration, keys, warmup, iterations, timeMillis);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ruleaza o combinatie de parametri si afiseaza rezultatul iteratiilor masurate.
+     */
+    private static void run(final Configuration configuration, final String[] keys,
+                            final int warmup, final int iterations, final long timeMillis)
+            throws InterruptedException {
+        CacheTarget target = CacheTarget.create(configuration.cache, configuration.capacity,
+                configuration.threads, createListener(configuration), createValues(
+                        configuration.valueSize));
+
+        int[][] workloads = new int[configuration.threads][];
+        for (int i = 0; i < configuration.threads; i++) {
+            workloads[i] = Workload.generate(configuration.distribution, configuration.keyCount,
+                    OPERATIONS_PER_THREAD, configuration.readRatio, i + 1);
+        }
+
+        for (int i = 0; i < warmup; i++) {
+            iterate(target, keys, workloads, timeMillis, new LatencyHistogram());
+        }
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        long operations = 0;
+        long nanos = 0;
+        long missesBefore = target.getMisses();
+        long reads = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] result = iterate(target, keys, workloads, timeMillis, latencies);
+            operations += result[0];
+            nanos += result[1];
+            reads += result[2];
+        }
+        long misses = target.getMisses() - missesBefore;
+        double hitRatio = reads == 0 ? 0 : PERCENT * (reads - misses) / reads;
+
+        System.out.println(String.format(Locale.ROOT, "%-15s %-8s %9d %7d %6d %-6s %12.0f %8.2f"
+                        + " %8d %8d %8d", configuration.cache,
+                configuration.distribution.name().toLowerCase(Locale.ROOT),
+                configuration.capacity, configuration.threads, configuration.valueSize,
+                configuration.listener, operations * NANOS_PER_SECOND / nanos,
+                hitRatio, latencies.getValueAtPercentile(P50),
+                latencies.getValueAtPercentile(P99), latencies.getValueAtPercentile(P999)));
+    }
+
+    /**
+     * O iteratie: firele executa operatiile in bucla pana la expirarea timpului.
+     *
+     * @return Numarul de operatii, durata in nanosecunde si numarul de citiri.
+     */
+    private static long[] iterate(final CacheTarget target, final String[] keys,
+                                  final int[][] workloads, final long timeMillis,
+                                  final LatencyHistogram latencies) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] operations = new long[workloads.length];
+        final long[] readCounts = new long[workloads.length];
+        Thread[] threads = new Thread[workloads.length];
+
+        stopped = false;
+        for (int i = 0; i < workloads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long[] counts = execute(target, keys, workloads[thread], latencies);
+                    operations[thread] = counts[0];
+                    readCounts[thread] = counts[1];
+                }
+            }, "benchmark-" + i);
+            threads[i].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(timeMillis);
+        stopped = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long totalOperations = 0;
+        long totalReads = 0;
+        for (int i = 0; i < workloads.length; i++) {
+            totalOperations += operations[i];
+            totalReads += readCounts[i];
+        }
+        return new long[] {totalOperations, elapsed, totalReads};
+    }
+
+    /**
+     * Bucla unui fir. Timpul este verificat o data la SAMPLE_PERIOD operatii, iar rezultatul
+     * citirilor este acumulat in @sink ca JIT-ul sa nu elimine apelurile.
+     *
+     * @return Numarul de operatii si numarul de citiri executate.
+     */
+    private static long[] execute(final CacheTarget target, final String[] keys,
+                                  final int[] workload, final LatencyHistogram latencies) {
+        int mask = workload.length - 1;
+        long operations = 0;
+        long reads = 0;
+        long checksum = 0;
+
+        while (!stopped) {
+            for (int i = 0; i < SAMPLE_PERIOD; i++) {
+                int operation = workload[(int) (operations++ & mask)];
+                long begin = i == 0 ? System.nanoTime() : 0;
+
+                if (operation >= 0) {
+                    checksum += target.read(keys[operation], operation).length();
+                    reads++;
+                } else {
+                    target.write(keys[~operation], ~operation);
+                }
+
+                if (i == 0) {
+                    latencies.record(System.nanoTime() - begin);
+                }
+            }
+        }
+        sink += checksum;
+        return new long[] {operations, reads};
+    }
+
+    /**
+     * Listener-ul cerut. KeyStatsListener nu este thread-safe, asa ca este protejat de un lock
+     * cand cache-ul este folosit de mai multe fire.
+     */
+    private static CacheListener<String, String> createListener(
+            final Configuration configuration) {
+        switch (configuration.listener) {
+            case "none":
+                return null;
+            case "stats":
+                return new StatsListener<>();
+            case "keys":
+                final KeyStatsListener<String, String> keyStats = new KeyStatsListener<>();
+                if (configuration.threads == 1) {
+                    return keyStats;
+                }
+                return new CacheListener<String, String>() {
+                    @Override
+                    public synchronized void onHit(final String key) {
+                        keyStats.onHit(key);
+                    }
+
+                    @Override
+                    public synchronized void onMiss(final String key) {
+                        keyStats.onMiss(key);
+                    }
+
+                    @Override
+                    public synchronized void onPut(final String key, final String value) {
+                        keyStats.onPut(key, value);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown listener: "
+                        + configuration.listener);
+        }
+    }
+
+    private static String[] createValues(final int valueSize) {
+        String[] values = new String[VALUES_PER_SIZE];
+        for (int i = 0; i < VALUES_PER_SIZE; i++) {
+            char[] contents = new char[valueSize];
+            Arrays.fill(contents, (char) ('a' + i));
+            values[i] = new String(contents);
+        }
+        return values;
+    }
+
+    private static HashMap<String, String> parseOptions(final String[] args) {
+        HashMap<String, String> options = new HashMap<>();
+        for (String[] option : DEFAULTS) {
+            options.put(option[0], option[1]);
+        }
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 == args.length
+                    || !options.containsKey(args[i].substring(2))) {
+                throw new IllegalArgumentException("Invalid option: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static List<String> split(final String list) {
+        return new ArrayList<>(Arrays.asList(list.split(",")));
+    }
+
+    /**
+     * Parametrii unei rulari.
+     */
+    private static final class Configuration {
+        private final String cache;
+        private final Workload.Distribution distribution;
+        private final int keyCount;
+        private final int capacity;
+        private final int threads;
+        private final int valueSize;
+        private final String listener;
+        private final double readRatio;
+
+        Configuration(final String cache, final Workload.Distribution distribution,
+                      final int keyCount, final int capacity, final int threads,
+                      final int valueSize, final String listener, final double readRatio) {
+            this.cache = cache;
+            this.distribution = distribution;
+            this.keyCount = keyCount;
+            this.capacity = capacity;
+            this.threads = threads;
+            this.valueSize = valueSize;
+            this.listener = listener;
+            this.readRatio = readRatio;
+        }
+    }
+}
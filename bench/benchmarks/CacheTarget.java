@@ -0,0 +1,226 @@
+package benchmarks;
+
+import cachingSystem.FileCache;
+import cachingSystem.classes.ARCCache;
+import cachingSystem.classes.ConcurrentLRUCache;
+import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.ObservableCache;
+import cachingSystem.classes.ObservableFIFOCache;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.classes.TinyLFUCache;
+import cachingSystem.interfaces.CacheLoader;
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.interfaces.CacheListener;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache under benchmark, used as a cache-aside store: a read that misses stores the value of the
+ * key, so the hit ratio depends on the capacity, the key count and the distribution.
+ */
+abstract class CacheTarget {
+    private static final long TIME_TO_LIVE_MILLIS = 10 * 60 * 1000;
+    private static final String FILE_PREFIX = "file-";
+
+    private final String[] values;
+    private final LongAdder misses = new LongAdder();
+
+    CacheTarget(final String[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Read a key, storing its value on a miss.
+     *
+     * @param key   the key
+     * @param index the index of the key, used to pick its value
+     * @return the value
+     */
+    abstract String read(String key, int index);
+
+    /**
+     * Store the value of a key.
+     *
+     * @param key   the key
+     * @param index the index of the key, used to pick its value
+     */
+    abstract void write(String key, int index);
+
+    /**
+     * Get the number of reads that missed.
+     *
+     * @return the number of misses
+     */
+    final long getMisses() {
+        return misses.sum();
+    }
+
+    final String valueOf(final int index) {
+        return values[index % values.length];
+    }
+
+    final void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Create the cache named @name. The caches that are not thread-safe are guarded by a single
+     * lock when they are used by more than one thread. The file caches use the strategy in their
+     * name; with more than one thread they are created with createConcurrentCacheWithCapacity, so
+     * file-lru uses a ConcurrentLRUCache and the other strategies a segmented cache.
+     *
+     * @param name     lru, fifo, tiny_lfu, arc, time, concurrent-lru, file-lru, file-fifo,
+     *                 file-tiny_lfu or file-arc
+     * @param capacity the number of entries kept by the cache
+     * @param threads  the number of threads that use the cache
+     * @param listener the listener of the cache, or null
+     * @param values   the values stored in the cache
+     * @return the target
+     */
+    static CacheTarget create(final String name, final int capacity, final int threads,
+                              final CacheListener<String, String> listener,
+                              final String[] values) {
+        boolean synchronize = threads > 1;
+
+        switch (name) {
+            case "lru":
+                return new ObservableTarget(new LRUCache<String, String>(), capacity, synchronize,
+                        listener, values);
+            case "fifo":
+                return new ObservableTarget(new ObservableFIFOCache<String, String>(), capacity,
+                        synchronize, listener, values);
+            case "time":
+                TimeAwareCache<String, String> timeAwareCache = new TimeAwareCache<>();
+                timeAwareCache.setExpirePolicy(TIME_TO_LIVE_MILLIS);
+                return new ObservableTarget(timeAwareCache, capacity, synchronize, listener,
+                        values);
+            case "tiny_lfu":
+                return new ObservableTarget(new TinyLFUCache<String, String>(capacity), capacity,
+                        synchronize, listener, values);
+            case "arc":
+                return new ObservableTarget(new ARCCache<String, String>(capacity), capacity,
+                        synchronize, listener, values);
+            case "concurrent-lru":
+                return new ObservableTarget(new ConcurrentLRUCache<String, String>(threads),
+                        capacity, false, listener, values);
+            default:
+                if (name.startsWith(FILE_PREFIX)) {
+                    FileCache.Strategy strategy = FileCache.Strategy.valueOf(
+                            name.substring(FILE_PREFIX.length()).toUpperCase(Locale.ROOT));
+                    return new FileTarget(strategy, capacity, threads, listener, values);
+                }
+                throw new IllegalArgumentException("Unknown cache: " + name);
+        }
+    }
+
+    /**
+     * Un cache folosit direct, limitat la @capacity intrari prin politica de invechire.
+     */
+    private static final class ObservableTarget extends CacheTarget {
+        private final ObservableCache<String, String> cache;
+        private final boolean synchronize;
+
+        ObservableTarget(final ObservableCache<String, String> cache, final int capacity,
+                         final boolean synchronize, final CacheListener<String, String> listener,
+                         final String[] values) {
+            super(values);
+            this.cache = cache;
+            this.synchronize = synchronize;
+
+            cache.setCacheListener(listener == null ? new NoOpListener() : listener);
+            cache.setStalePolicy(new CacheStalePolicy<String, String>() {
+                @Override
+                public boolean shouldRemoveEldestEntry(final Pair<String, String> entry) {
+                    return cache.size() > capacity;
+                }
+            });
+        }
+
+        @Override
+        String read(final String key, final int index) {
+            if (synchronize) {
+                synchronized (this) {
+                    return readUnlocked(key, index);
+                }
+            }
+            return readUnlocked(key, index);
+        }
+
+        @Override
+        void write(final String key, final int index) {
+            if (synchronize) {
+                synchronized (this) {
+                    cache.put(key, valueOf(index));
+                }
+                return;
+            }
+            cache.put(key, valueOf(index));
+        }
+
+        private String readUnlocked(final String key, final int index) {
+            String value = cache.get(key);
+            if (value == null) {
+                recordMiss();
+                value = valueOf(index);
+                cache.put(key, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Un FileCache ale carui fisiere sunt "incarcate" din memorie, fara acces la disc, astfel
+     * incat sa fie masurat doar costul cache-ului.
+     */
+    private static final class FileTarget extends CacheTarget {
+        private final FileCache cache;
+
+        FileTarget(final FileCache.Strategy strategy, final int capacity, final int threads,
+                   final CacheListener<String, String> listener, final String[] values) {
+            super(values);
+            this.cache = threads > 1
+                    ? FileCache.createConcurrentCacheWithCapacity(strategy, capacity, threads)
+                    : FileCache.createCacheWithCapacity(strategy, capacity);
+
+            if (listener != null) {
+                cache.addListener(listener);
+            }
+            cache.setCacheLoader(new CacheLoader<String, String>() {
+                @Override
+                public String load(final String key) {
+                    recordMiss();
+                    return valueOf(key.hashCode() & Integer.MAX_VALUE);
+                }
+            });
+        }
+
+        @Override
+        String read(final String key, final int index) {
+            return cache.getFileContents(key);
+        }
+
+        @Override
+        void write(final String key, final int index) {
+            cache.putFileContents(key, valueOf(index));
+        }
+    }
+
+    /**
+     * Listener gol, pentru cache-urile ce cer un listener.
+     */
+    private static final class NoOpListener implements CacheListener<String, String> {
+        @Override
+        public void onHit(final String key) {
+        }
+
+        @Override
+        public void onMiss(final String key) {
+        }
+
+        @Override
+        public void onPut(final String key, final String value) {
+        }
+    }
+}
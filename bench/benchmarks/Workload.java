@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A precomputed sequence of cache operations, so that generating keys does not take time from the
+ * measured cache calls. Each operation is the index of a key; writes are stored as the bitwise
+ * complement of the index.
+ */
+final class Workload {
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * How the keys of a workload are chosen.
+     */
+    enum Distribution {
+        /** Every key is equally likely. */
+        UNIFORM,
+        /** A few keys are very popular, as in most real traffic. */
+        ZIPF,
+        /** The keys are read in a loop, which defeats recency-based eviction. */
+        SCAN,
+    }
+
+    private Workload() {
+    }
+
+    /**
+     * Generate @length operations over @keyCount keys.
+     *
+     * @param distribution the key distribution
+     * @param keyCount     the number of distinct keys
+     * @param length       the number of operations
+     * @param readRatio    the fraction of the operations that are reads
+     * @param seed         the seed, different for every thread
+     * @return the operations
+     */
+    static int[] generate(final Distribution distribution, final int keyCount, final int length,
+                          final double readRatio, final long seed) {
+        Random random = new Random(seed);
+        double[] cumulative = distribution == Distribution.ZIPF ? zipfCumulative(keyCount) : null;
+        int scanStart = random.nextInt(keyCount);
+        int[] operations = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            int key;
+            switch (distribution) {
+                case UNIFORM:
+                    key = random.nextInt(keyCount);
+                    break;
+                case ZIPF:
+                    key = zipfKey(cumulative, random.nextDouble());
+                    break;
+                case SCAN:
+                    key = (scanStart + i) % keyCount;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown distribution: " + distribution);
+            }
+            operations[i] = random.nextDouble() < readRatio ? key : ~key;
+        }
+        return operations;
+    }
+
+    /**
+     * Distributia cumulata normalizata a legii lui Zipf peste @keyCount chei.
+     */
+    private static double[] zipfCumulative(final int keyCount) {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int zipfKey(final double[] cumulative, final double uniform) {
+        int index = Arrays.binarySearch(cumulative, uniform);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cumulative.length - 1);
+    }
+}
@@ -1,12 +1,27 @@
 import cachingSystem.FileCache;
+import dataStructures.classes.LatencyHistogram;
 import observerPattern.classes.KeyStatsListener;
 import observerPattern.classes.StatsListener;
+import observerPattern.interfaces.CacheListener;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
-import java.util.Iterator;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public final class Main {
     private static final String FIFO_CACHE = "FIFO";
@@ -25,31 +40,62 @@ public final class Main {
     private static final String TOTAL_MISSES = "total_misses";
     private static final String TOTAL_UPDATES = "total_updates";
 
+    /* Do not print the contents of the files, only the stats. */
+    private static final String QUIET_OPTION = "--quiet";
+    /* Print the throughput and the latencies of the replay to the standard error. */
+    private static final String REPORT_OPTION = "--report";
+    /* Replay the get and put commands on several threads; file contents are not printed. */
+    private static final String THREADS_OPTION = "--threads";
+    /* How the commands are spread across the threads: by key hash, or round-robin. */
+    private static final String PARTITION_OPTION = "--partition";
+    private static final String KEY_PARTITION = "key";
+    private static final String ROUND_ROBIN_PARTITION = "round-robin";
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int WORKER_QUEUE_SIZE = 1 << 12;
+    private static final int RADIX = 10;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+
+    /* Marcajele trimise firelor, comparate prin referinta. */
+    private static final String BARRIER = new String("barrier");
+    private static final String STOP = new String("stop");
+
     private Main() {
 
     }
 
-    private static List<String> readLines(final String filePath) {
+    private static BufferedReader openCommands(final String filePath) {
         try {
-            return Files.readAllLines(Paths.get(filePath));
-        } catch (IOException e) {
+            return Files.newBufferedReader(Paths.get(filePath));
+        } catch (IOException | InvalidPathException e) {
             throw new IllegalArgumentException("Invalid file path: " + filePath);
         }
     }
 
-    private static FileCache createFileCache(final String command) {
-        String[] tokens = command.split(" ");
-        long parameter = Long.parseLong(tokens[1]);
+    private static FileCache createFileCache(final String command, final int threads) {
+        String cacheType = token(command, 0);
+        long parameter = parseNumber(command, 1);
 
-        switch (tokens[0]) {
+        switch (cacheType) {
             case FIFO_CACHE:
+                if (threads > 1) {
+                    return FileCache.createConcurrentCacheWithCapacity(FileCache.Strategy.FIFO,
+                            (int) parameter, threads);
+                }
                 return FileCache.createCacheWithCapacity(FileCache.Strategy.FIFO, (int) parameter);
             case LRU_CACHE:
+                if (threads > 1) {
+                    return FileCache.createConcurrentCacheWithCapacity(FileCache.Strategy.LRU,
+                            (int) parameter, threads);
+                }
                 return FileCache.createCacheWithCapacity(FileCache.Strategy.LRU, (int) parameter);
             case TIME_AWARE_CACHE:
                 return FileCache.createCacheWithExpiration(parameter);
             default:
-                throw new IllegalArgumentException("Unsupported cache type: " + tokens[0]);
+                throw new IllegalArgumentException("Unsupported cache type: " + cacheType);
         }
     }
 
@@ -58,94 +104,406 @@ public final class Main {
             throw new IllegalArgumentException("Missing path to test file.");
         }
 
-        List<String> commands = readLines(args[0]);
+        boolean quiet = false;
+        boolean report = false;
+        int threads = 1;
+        boolean partitionByKey = true;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case QUIET_OPTION:
+                    quiet = true;
+                    break;
+                case REPORT_OPTION:
+                    report = true;
+                    break;
+                case THREADS_OPTION:
+                    threads = Integer.parseInt(optionValue(args, ++i));
+                    if (threads <= 0) {
+                        throw new IllegalArgumentException("Invalid thread count: " + threads);
+                    }
+                    break;
+                case PARTITION_OPTION:
+                    String partition = optionValue(args, ++i);
+                    if (!KEY_PARTITION.equals(partition)
+                            && !ROUND_ROBIN_PARTITION.equals(partition)) {
+                        throw new IllegalArgumentException("Unknown partition: " + partition);
+                    }
+                    partitionByKey = KEY_PARTITION.equals(partition);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out)), OUTPUT_BUFFER_SIZE));
+
+        try (BufferedReader commands = openCommands(args[0])) {
+            String header = commands.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("Missing cache type.");
+            }
 
-        Iterator<String> commandIterator = commands.iterator();
+            FileCache cache = createFileCache(header.trim(), threads);
+            if (report) {
+                cache.recordLatencies();
+            }
 
-        FileCache cache = createFileCache(commandIterator.next());
+            long start = System.nanoTime();
+            long operations = threads == 1 ? replay(commands, cache, out, quiet)
+                    : replayInParallel(commands, cache, out, threads, partitionByKey);
+            long elapsed = System.nanoTime() - start;
+
+            out.flush();
+            if (report) {
+                printReport(cache, operations, elapsed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Executa comenzile pe masura ce sunt citite, fara a incarca tot fisierul in memorie.
+     *
+     * @param commands Fisierul de comenzi, fara prima linie.
+     * @param cache    Cache-ul folosit.
+     * @param out      Iesirea, golita inainte de fiecare pauza.
+     * @param quiet    Daca continutul fisierelor nu este afisat.
+     * @return Numarul de operatii get/put executate.
+     * @throws IOException daca fisierul de comenzi nu poate fi citit.
+     */
+    private static long replay(final BufferedReader commands, final FileCache cache,
+                               final PrintWriter out, final boolean quiet)
+            throws IOException, InterruptedException {
         KeyStatsListener<String, String> keyStatsListener = new KeyStatsListener<>();
         StatsListener<String, String> statsListener = new StatsListener<>();
 
         cache.addListener(keyStatsListener);
         cache.addListener(statsListener);
 
-        while (commandIterator.hasNext()) {
-            String command = commandIterator.next().trim();
-            String[] tokens = command.split(" ");
+        long operations = 0;
+        String line;
+        while ((line = commands.readLine()) != null) {
+            String command = line.trim();
 
             if (command.isEmpty() || command.startsWith("#")) {
                 continue;
             }
 
-            switch (tokens[0]) {
-                case DELAY_COMMAND:
-                    long parameter = Long.parseLong(tokens[1]);
+            if (isCommand(command, DELAY_COMMAND)) {
+                long parameter = parseNumber(command, 1);
+
+                out.flush();
+                Thread.sleep(parameter);
+            } else if (isCommand(command, GET_COMMAND)) {
+                String fileContents = cache.getFileContents(token(command, 1));
+                if (!quiet) {
+                    out.println(fileContents);
+                }
+                operations++;
+            } else if (isCommand(command, PUT_COMMAND)) {
+                cache.putFileContents(token(command, 1), token(command, 2));
+                operations++;
+            } else {
+                printStats(command, keyStatsListener, statsListener, out);
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Imparte comenzile get/put intre @threads fire, dupa cheie (pastrand ordinea comenzilor pe
+     * aceeasi cheie) sau prin rotatie. Inainte de o pauza sau de o comanda de statistica, toate
+     * comenzile trimise sunt terminate, astfel incat rezultatul lor sa fie determinist.
+     *
+     * @return Numarul de operatii get/put executate.
+     */
+    private static long replayInParallel(final BufferedReader commands, final FileCache cache,
+                                         final PrintWriter out, final int threads,
+                                         final boolean partitionByKey)
+            throws IOException, InterruptedException {
+        final KeyStatsListener<String, String> keyStatsListener = new KeyStatsListener<>();
+        StatsListener<String, String> statsListener = new StatsListener<>();
+
+        /* KeyStatsListener nu este thread-safe, asa ca evenimentele ii sunt livrate sub lock. */
+        cache.addListener(new CacheListener<String, String>() {
+            @Override
+            public synchronized void onHit(final String key) {
+                keyStatsListener.onHit(key);
+            }
+
+            @Override
+            public synchronized void onMiss(final String key) {
+                keyStatsListener.onMiss(key);
+            }
+
+            @Override
+            public synchronized void onPut(final String key, final String value) {
+                keyStatsListener.onPut(key, value);
+            }
+        });
+        cache.addListener(statsListener);
+
+        Phaser barrier = new Phaser(threads + 1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicLong operations = new AtomicLong();
+        ArrayList<BlockingQueue<String>> queues = new ArrayList<>(threads);
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            BlockingQueue<String> queue = new ArrayBlockingQueue<>(WORKER_QUEUE_SIZE);
+            queues.add(queue);
+            workers[i] = new Thread(new ReplayWorker(queue, cache, barrier, failure, operations),
+                    "replay-" + i);
+            workers[i].start();
+        }
+
+        try {
+            long dispatched = 0;
+            String line;
+            while ((line = commands.readLine()) != null) {
+                String command = line.trim();
+
+                if (command.isEmpty() || command.startsWith("#")) {
+                    continue;
+                }
+
+                if (isCommand(command, GET_COMMAND) || isCommand(command, PUT_COMMAND)) {
+                    int worker = partitionByKey
+                            ? (token(command, 1).hashCode() & Integer.MAX_VALUE) % threads
+                            : (int) (dispatched % threads);
+                    queues.get(worker).put(command);
+                    dispatched++;
+                    continue;
+                }
+
+                awaitWorkers(queues, barrier, failure);
+                if (isCommand(command, DELAY_COMMAND)) {
+                    long parameter = parseNumber(command, 1);
 
+                    out.flush();
                     Thread.sleep(parameter);
+                } else {
+                    printStats(command, keyStatsListener, statsListener, out);
+                }
+            }
+            awaitWorkers(queues, barrier, failure);
+        } finally {
+            for (BlockingQueue<String> queue : queues) {
+                queue.put(STOP);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        return operations.get();
+    }
 
-                    break;
-                case GET_COMMAND:
-                    System.out.println(cache.getFileContents(tokens[1]));
+    /**
+     * Asteapta ca toate firele sa termine comenzile primite si arunca prima lor eroare.
+     */
+    private static void awaitWorkers(final ArrayList<BlockingQueue<String>> queues,
+                                     final Phaser barrier,
+                                     final AtomicReference<RuntimeException> failure)
+            throws InterruptedException {
+        for (BlockingQueue<String> queue : queues) {
+            queue.put(BARRIER);
+        }
+        barrier.arriveAndAwaitAdvance();
 
-                    break;
-                case PUT_COMMAND:
-                    cache.putFileContents(tokens[1], tokens[2]);
+        RuntimeException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+    }
 
-                    break;
-                case TOP_HITS:
-                    int topHitsLength = Integer.parseInt(tokens[1]);
+    /**
+     * Executa o comanda de statistica. Comenzile necunoscute sunt ignorate.
+     */
+    private static void printStats(final String command,
+                                   final KeyStatsListener<String, String> keyStatsListener,
+                                   final StatsListener<String, String> statsListener,
+                                   final PrintWriter out) {
+        if (isCommand(command, TOP_HITS)) {
+            /* Avoid sort differences by printing values instead of keys */
+            for (String key : keyStatsListener.getTopHitKeys((int) parseNumber(command, 1))) {
+                out.print(keyStatsListener.getKeyHits(key));
+                out.print(' ');
+            }
 
-                    /* Avoid sort differences by printing values instead of keys */
-                    for (String key : keyStatsListener.getTopHitKeys(topHitsLength)) {
-                        System.out.print(keyStatsListener.getKeyHits(key) + " ");
-                    }
+            out.println();
+        } else if (isCommand(command, TOP_MISSES)) {
+            /* Avoid sort differences by printing values instead of keys */
+            for (String key : keyStatsListener.getTopMissedKeys((int) parseNumber(command, 1))) {
+                out.print(keyStatsListener.getKeyMisses(key));
+                out.print(' ');
+            }
 
-                    System.out.println();
+            out.println();
+        } else if (isCommand(command, TOP_UPDATES)) {
+            /* Avoid sort differences by printing values instead of keys */
+            for (String key : keyStatsListener.getTopUpdatedKeys((int) parseNumber(command, 1))) {
+                out.print(keyStatsListener.getKeyUpdates(key));
+                out.print(' ');
+            }
 
-                    break;
-                case TOP_MISSES:
-                    int topMissesLength = Integer.parseInt(tokens[1]);
+            out.println();
+        } else if (isCommand(command, KEY_HITS)) {
+            out.println(keyStatsListener.getKeyHits(token(command, 1)));
+        } else if (isCommand(command, KEY_MISSES)) {
+            out.println(keyStatsListener.getKeyMisses(token(command, 1)));
+        } else if (isCommand(command, KEY_UPDATES)) {
+            out.println(keyStatsListener.getKeyUpdates(token(command, 1)));
+        } else if (isCommand(command, TOTAL_HITS)) {
+            out.println(statsListener.getHits());
+        } else if (isCommand(command, TOTAL_MISSES)) {
+            out.println(statsListener.getMisses());
+        } else if (isCommand(command, TOTAL_UPDATES)) {
+            out.println(statsListener.getUpdates());
+        }
+    }
 
-                    /* Avoid sort differences by printing values instead of keys */
-                    for (String key : keyStatsListener.getTopMissedKeys(topMissesLength)) {
-                        System.out.print(keyStatsListener.getKeyMisses(key) + " ");
-                    }
+    /**
+     * Afiseaza la iesirea de eroare debitul si latentele operatiilor.
+     */
+    private static void printReport(final FileCache cache, final long operations,
+                                    final long elapsed) {
+        System.err.println(String.format(Locale.ROOT, "%d operations in %.3f s, %.0f ops/s",
+                operations, elapsed / NANOS_PER_SECOND,
+                operations * NANOS_PER_SECOND / Math.max(1, elapsed)));
 
-                    System.out.println();
+        for (FileCache.Operation operation : FileCache.Operation.values()) {
+            LatencyHistogram latencies = cache.getLatencies(operation);
+            if (latencies.getCount() == 0) {
+                continue;
+            }
+            System.err.println(String.format(Locale.ROOT,
+                    "%-4s count=%d p50=%dns p99=%dns p999=%dns max=%dns",
+                    operation.name().toLowerCase(Locale.ROOT), latencies.getCount(),
+                    latencies.getValueAtPercentile(P50), latencies.getValueAtPercentile(P99),
+                    latencies.getValueAtPercentile(P999), latencies.getMax()));
+        }
+    }
 
-                    break;
-                case TOP_UPDATES:
-                    int topUpdatesLength = Integer.parseInt(tokens[1]);
+    private static String optionValue(final String[] args, final int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
 
-                    /* Avoid sort differences by printing values instead of keys */
-                    for (String key : keyStatsListener.getTopUpdatedKeys(topUpdatesLength)) {
-                        System.out.print(keyStatsListener.getKeyUpdates(key) + " ");
-                    }
+    /**
+     * Verifica daca primul cuvant al comenzii este @name, fara a-l extrage intr-un String nou.
+     */
+    private static boolean isCommand(final String command, final String name) {
+        return command.startsWith(name)
+                && (command.length() == name.length() || command.charAt(name.length()) == ' ');
+    }
 
-                    System.out.println();
+    /**
+     * Pozitia de inceput a cuvantului @index, cuvintele fiind separate prin cate un spatiu.
+     */
+    private static int tokenStart(final String command, final int index) {
+        int start = 0;
+        for (int i = 0; i < index; i++) {
+            start = command.indexOf(' ', start) + 1;
+            if (start == 0) {
+                throw new IllegalArgumentException("Missing argument in command: " + command);
+            }
+        }
+        return start;
+    }
 
-                    break;
-                case KEY_HITS:
-                    System.out.println(keyStatsListener.getKeyHits(tokens[1]));
-                    break;
-                case KEY_MISSES:
-                    System.out.println(keyStatsListener.getKeyMisses(tokens[1]));
-                    break;
-                case KEY_UPDATES:
-                    System.out.println(keyStatsListener.getKeyUpdates(tokens[1]));
-                    break;
-                case TOTAL_HITS:
-                    System.out.println(statsListener.getHits());
-                    break;
-                case TOTAL_MISSES:
-                    System.out.println(statsListener.getMisses());
-                    break;
-                case TOTAL_UPDATES:
-                    System.out.println(statsListener.getUpdates());
-                    break;
-                default:
-                    continue;
+    private static int tokenEnd(final String command, final int start) {
+        int end = command.indexOf(' ', start);
+        return end < 0 ? command.length() : end;
+    }
+
+    private static String token(final String command, final int index) {
+        int start = tokenStart(command, index);
+        return command.substring(start, tokenEnd(command, start));
+    }
+
+    /**
+     * Interpreteaza cuvantul @index ca numar zecimal, direct din comanda.
+     */
+    private static long parseNumber(final String command, final int index) {
+        int start = tokenStart(command, index);
+        int end = tokenEnd(command, start);
+        boolean negative = start < end && command.charAt(start) == '-';
+        int position = negative ? start + 1 : start;
+
+        if (position == end) {
+            throw new NumberFormatException("Invalid number in command: " + command);
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = Character.digit(command.charAt(position), RADIX);
+            if (digit < 0) {
+                throw new NumberFormatException("Invalid number in command: " + command);
+            }
+            value = Math.addExact(Math.multiplyExact(value, RADIX), digit);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Firul ce executa comenzile get/put primite, pana la marcajul de oprire. La un marcaj de
+     * sincronizare asteapta celelalte fire si firul principal. Erorile sunt retinute, nu opresc
+     * firul, ca firul principal sa nu astepte la nesfarsit.
+     */
+    private static final class ReplayWorker implements Runnable {
+        private final BlockingQueue<String> queue;
+        private final FileCache cache;
+        private final Phaser barrier;
+        private final AtomicReference<RuntimeException> failure;
+        private final AtomicLong operations;
+
+        ReplayWorker(final BlockingQueue<String> queue, final FileCache cache,
+                     final Phaser barrier, final AtomicReference<RuntimeException> failure,
+                     final AtomicLong operations) {
+            this.queue = queue;
+            this.cache = cache;
+            this.barrier = barrier;
+            this.failure = failure;
+            this.operations = operations;
+        }
+
+        @Override
+        public void run() {
+            long executed = 0;
+            try {
+                while (true) {
+                    String command = queue.take();
+                    if (command == STOP) {
+                        break;
+                    }
+                    if (command == BARRIER) {
+                        operations.addAndGet(executed);
+                        executed = 0;
+                        barrier.arriveAndAwaitAdvance();
+                        continue;
+                    }
+
+                    try {
+                        if (isCommand(command, GET_COMMAND)) {
+                            cache.getFileContents(token(command, 1));
+                        } else {
+                            cache.putFileContents(token(command, 1), token(command, 2));
+                        }
+                        executed++;
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            operations.addAndGet(executed);
         }
     }
 }
@@ -0,0 +1,260 @@
+package cachingSystem;
+
+import cachingSystem.classes.ObservableCache;
+import cachingSystem.classes.OffHeapCache;
+import cachingSystem.classes.SingleFlight;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.interfaces.CacheLoader;
+import observerPattern.classes.BroadcastListener;
+import observerPattern.interfaces.CacheListener;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte-oriented counterpart of FileCache. Files are stored as read-only ByteBuffers instead of
+ * decoded Strings: large files are memory-mapped, small files are read into heap buffers. The
+ * buffers handed out by the cache are views over the cached contents, so they can be written to
+ * a channel without copying; Strings are only decoded when explicitly requested.
+ */
+public final class ByteFileCache {
+    private static final long DEFAULT_MAPPING_THRESHOLD = 1 << 20;
+    private static final int DEFAULT_SLAB_SIZE = 64 << 20;
+
+    public static cachingSystem.ByteFileCache createCacheWithCapacity(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity) {
+        return new cachingSystem.ByteFileCache(
+                FileCache.<ByteBuffer>createDataCache(strategy, capacity));
+    }
+
+    public static cachingSystem.ByteFileCache createConcurrentCacheWithCapacity(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity,
+            final int concurrencyLevel) {
+        return new cachingSystem.ByteFileCache(
+                FileCache.<ByteBuffer>createConcurrentDataCache(strategy, capacity,
+                        concurrencyLevel));
+    }
+
+    /**
+     * Create a cache that stores the file contents off the Java heap and evicts files once their
+     * total size exceeds a byte budget, instead of counting entries. The budget is split into
+     * slabs of 64 MiB, or of the whole budget if it is smaller; files larger than a slab are served
+     * but not cached. The buffers returned for cached files are views of the off-heap memory,
+     * which is not reused while they are reachable; buffers derived from them with duplicate or
+     * slice do not keep them valid. The budget is allocated upfront as direct memory, so it must
+     * fit within -XX:MaxDirectMemorySize.
+     *
+     * @param strategy   FIFO to evict in insertion order, LRU to evict the least recently used
+     * @param byteBudget the maximum number of bytes of file contents stored by the cache
+     * @return the file cache
+     */
+    public static cachingSystem.ByteFileCache createOffHeapCacheWithBudget(
+            final cachingSystem.FileCache.Strategy strategy, final long byteBudget) {
+        return createOffHeapCacheWithBudget(strategy, byteBudget,
+                (int) Math.min(DEFAULT_SLAB_SIZE, byteBudget));
+    }
+
+    /**
+     * Create an off-heap cache, like createOffHeapCacheWithBudget, with a given slab size. The
+     * slab size bounds the largest file that can be cached, so it should be at least as large as
+     * the largest file that is worth caching; a single slab may hold up to 2 GiB - 1 bytes.
+     *
+     * @param strategy   FIFO to evict in insertion order, LRU to evict the least recently used
+     * @param byteBudget the maximum number of bytes of file contents stored by the cache
+     * @param slabSize   the size of a slab, in bytes
+     * @return the file cache
+     */
+    public static cachingSystem.ByteFileCache createOffHeapCacheWithBudget(
+            final cachingSystem.FileCache.Strategy strategy, final long byteBudget,
+            final int slabSize) {
+        boolean accessOrder;
+
+        switch (strategy) {
+            case FIFO:
+                accessOrder = false;
+                break;
+            case LRU:
+                accessOrder = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported cache strategy: " + strategy);
+        }
+
+        OffHeapCache<String> dataCache = new OffHeapCache<>(byteBudget, slabSize, accessOrder);
+        cachingSystem.ByteFileCache fileCache = new cachingSystem.ByteFileCache(dataCache);
+
+        fileCache.offHeapCache = dataCache;
+        return fileCache;
+    }
+
+    public static cachingSystem.ByteFileCache createCacheWithExpiration(
+            final long millisToExpire) {
+        TimeAwareCache<String, ByteBuffer> dataCache = new TimeAwareCache<>();
+
+        dataCache.setExpirePolicy(millisToExpire);
+
+        return new cachingSystem.ByteFileCache(dataCache);
+    }
+
+    private ByteFileCache(final ObservableCache<String, ByteBuffer> dataCache) {
+        this.dataCache = dataCache;
+        this.broadcastListener = new BroadcastListener<>();
+        this.mappingThreshold = DEFAULT_MAPPING_THRESHOLD;
+
+        this.dataCache.setCacheListener(broadcastListener);
+
+        this.storingLoader = createStoringLoader();
+        this.pendingLoads = new SingleFlight<>();
+    }
+
+    /**
+     * Loader-ul folosit la un miss: citeste fisierul ca buffer read-only si il adauga in cache.
+     *
+     * @return Loader-ul ce populeaza cache-ul.
+     */
+    private CacheLoader<String, ByteBuffer> createStoringLoader() {
+        return new CacheLoader<String, ByteBuffer>() {
+            @Override
+            public ByteBuffer load(final String key) throws IOException {
+                ByteBuffer contents = readFile(key);
+                putFileBuffer(key, contents);
+                return contents;
+            }
+        };
+    }
+
+    /**
+     * Citeste un fisier. Fisierele mai mari decat pragul de mapare sunt mapate in memorie, iar
+     * cele mici sunt citite intr-un buffer din heap.
+     *
+     * @param path Adresa fisierului.
+     * @return Continutul fisierului, ca buffer read-only.
+     * @throws IOException daca fisierul nu poate fi citit
+     */
+    private ByteBuffer readFile(final String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size >= mappingThreshold) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("File shrank while being read: " + path);
+                }
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Set the size, in bytes, from which files are memory-mapped instead of read into the heap.
+     *
+     * @param mappingThreshold the size threshold, in bytes
+     */
+    public void setMappingThreshold(final long mappingThreshold) {
+        this.mappingThreshold = mappingThreshold;
+    }
+
+    /**
+     * Get the contents of a file as a read-only buffer. The buffer shares the cached bytes and has
+     * its own position and limit, so it can be consumed without affecting other readers.
+     *
+     * @param path the path of the file
+     * @return a read-only view of the contents of the file
+     * @throws java.io.UncheckedIOException if the file could not be loaded
+     */
+    public ByteBuffer getFileBuffer(final String path) {
+        ByteBuffer contents = dataCache.get(path);
+
+        if (contents == null) {
+            return pendingLoads.load(path, storingLoader).duplicate();
+        }
+        /* Vederile off-heap sunt create la fiecare citire si trebuie returnate ca atare. */
+        return offHeapCache != null ? contents : contents.duplicate();
+    }
+
+    /**
+     * Decode the contents of a file using the platform charset, like FileCache does.
+     *
+     * @param path the path of the file
+     * @return the contents of the file
+     */
+    public String getFileContents(final String path) {
+        return getFileContents(path, Charset.defaultCharset());
+    }
+
+    /**
+     * Decode the contents of a file.
+     *
+     * @param path    the path of the file
+     * @param charset the charset of the file
+     * @return the contents of the file
+     */
+    public String getFileContents(final String path, final Charset charset) {
+        return charset.decode(getFileBuffer(path)).toString();
+    }
+
+    /**
+     * Write the contents of a file to a channel straight from the cached buffer. With the
+     * off-heap backend, cached files are written straight from off-heap memory, without being
+     * copied to the heap.
+     *
+     * @param path   the path of the file
+     * @param target the channel
+     * @return the number of bytes written
+     * @throws IOException if writing to the channel fails
+     */
+    public long transferTo(final String path, final WritableByteChannel target)
+            throws IOException {
+        ByteBuffer contents;
+
+        if (offHeapCache != null) {
+            long transferred = offHeapCache.transferTo(path, target);
+            if (transferred >= 0) {
+                return transferred;
+            }
+            contents = pendingLoads.load(path, storingLoader).duplicate();
+        } else {
+            contents = getFileBuffer(path);
+        }
+
+        long written = 0;
+
+        while (contents.hasRemaining()) {
+            written += target.write(contents);
+        }
+        return written;
+    }
+
+    /**
+     * Store the contents of a file. The cache keeps a read-only view of the buffer, from its
+     * position to its limit; the buffer must not be modified afterwards.
+     *
+     * @param path     the path of the file
+     * @param contents the contents of the file
+     */
+    public void putFileBuffer(final String path, final ByteBuffer contents) {
+        dataCache.put(path, contents.slice().asReadOnlyBuffer());
+    }
+
+    public void addListener(final CacheListener<String, ByteBuffer> listener) {
+        broadcastListener.addListener(listener);
+    }
+
+    private ObservableCache<String, ByteBuffer> dataCache;
+    private OffHeapCache<String> offHeapCache;
+    private BroadcastListener<String, ByteBuffer> broadcastListener;
+    private CacheLoader<String, ByteBuffer> storingLoader;
+    private SingleFlight<String, ByteBuffer> pendingLoads;
+    private long mappingThreshold;
+}
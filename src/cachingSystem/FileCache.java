@@ -1,49 +1,187 @@
 package cachingSystem;
 
+import cachingSystem.classes.ARCCache;
+import cachingSystem.classes.ConcurrentLRUCache;
+import cachingSystem.classes.FileWatcher;
 import cachingSystem.classes.ObservableCache;
 import cachingSystem.classes.ObservableFIFOCache;
 import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.SegmentedCache;
+import cachingSystem.classes.SingleFlight;
 import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.classes.TinyLFUCache;
+import cachingSystem.interfaces.CacheLoader;
 import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Weigher;
+import dataStructures.classes.LatencyHistogram;
 import dataStructures.classes.Pair;
+import observerPattern.classes.AsyncBroadcastListener;
 import observerPattern.classes.BroadcastListener;
+import observerPattern.classes.CacheStats;
+import observerPattern.classes.StatsListener;
+import observerPattern.classes.WindowedStatsListener;
 import observerPattern.interfaces.CacheListener;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 public final class FileCache {
+    private static final Executor DEFAULT_LOADER_EXECUTOR = createLoaderExecutor();
+    private static final ScheduledExecutorService CLEAN_UP_SCHEDULER =
+            createCleanUpScheduler();
+    private static final int CLEAN_UP_BUDGET = 1024;
+    private static final long NO_VALIDATION = -1;
 
     public enum Strategy {
         FIFO,
         LRU,
+        TINY_LFU,
+        ARC,
+    }
+
+    public enum WatchMode {
+        INVALIDATE,
+        RELOAD,
+    }
+
+    public enum Operation {
+        HIT,
+        MISS,
+        LOAD,
+        PUT,
     }
 
     public static cachingSystem.FileCache createCacheWithCapacity(
             final cachingSystem.FileCache.Strategy strategy, final int capacity) {
-        ObservableCache<String, String> dataCache;
+        return new cachingSystem.FileCache(createDataCache(strategy, capacity), false);
+    }
+
+    /**
+     * Create a thread-safe file cache. For the FIFO strategy the keys are partitioned across
+     * independently locked segments, each with its own ordering and an equal share of the
+     * capacity, so requests for paths that land in different segments do not contend with each
+     * other. The LRU strategy uses a single ConcurrentLRUCache instead, whose hits take no lock
+     * at all and whose recency updates are applied in batches.
+     *
+     * @param strategy         the eviction strategy used by every segment
+     * @param capacity         the total number of files stored by the cache
+     * @param concurrencyLevel the estimated number of threads that access the cache at once
+     * @return the file cache
+     */
+    public static cachingSystem.FileCache createConcurrentCacheWithCapacity(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity,
+            final int concurrencyLevel) {
+        return new cachingSystem.FileCache(
+                createConcurrentDataCache(strategy, capacity, concurrencyLevel), true);
+    }
+
+    static <V> ObservableCache<String, V> createConcurrentDataCache(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity,
+            final int concurrencyLevel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency level: " + concurrencyLevel);
+        }
+
+        if (strategy == cachingSystem.FileCache.Strategy.LRU) {
+            ConcurrentLRUCache<String, V> dataCache = new ConcurrentLRUCache<>(concurrencyLevel);
+            setCapacityPolicy(dataCache, capacity);
+
+            return dataCache;
+        }
+
+        int segmentCount = Integer.highestOneBit(Math.min(concurrencyLevel, capacity));
+        if (segmentCount < concurrencyLevel && segmentCount * 2 <= capacity) {
+            segmentCount *= 2;
+        }
+
+        ArrayList<ObservableCache<String, V>> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            segments.add(FileCache.<V>createDataCache(strategy, segmentCapacity));
+        }
+
+        return new SegmentedCache<>(segments);
+    }
+
+    /**
+     * Create a file cache limited by the total weight of the stored files rather than by their
+     * number, e.g. by using the length of the contents as weight.
+     *
+     * @param strategy      the eviction strategy
+     * @param maximumWeight the maximum total weight of the stored files
+     * @param weigher       the weigher used for every file
+     * @return the file cache
+     */
+    public static cachingSystem.FileCache createCacheWithMaximumWeight(
+            final cachingSystem.FileCache.Strategy strategy, final long maximumWeight,
+            final Weigher<String, String> weigher) {
+        if (strategy == cachingSystem.FileCache.Strategy.TINY_LFU
+                || strategy == cachingSystem.FileCache.Strategy.ARC) {
+            throw new IllegalArgumentException("Unsupported weighted cache strategy: " + strategy);
+        }
+
+        ObservableCache<String, String> dataCache = createEngine(strategy, 0);
+
+        dataCache.setMaximumWeight(maximumWeight, weigher);
+
+        return new cachingSystem.FileCache(dataCache, false);
+    }
+
+    static <V> ObservableCache<String, V> createDataCache(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity) {
+        ObservableCache<String, V> dataCache = createEngine(strategy, capacity);
 
+        setCapacityPolicy(dataCache, capacity);
+
+        return dataCache;
+    }
+
+    private static <V> ObservableCache<String, V> createEngine(
+            final cachingSystem.FileCache.Strategy strategy, final int capacity) {
         switch (strategy) {
 
             case FIFO:
-                dataCache = new ObservableFIFOCache<>();
-                break;
+                return new ObservableFIFOCache<>();
             case LRU:
-                dataCache = new LRUCache<>();
-                break;
+                return new LRUCache<>();
+            case TINY_LFU:
+                return new TinyLFUCache<>(capacity);
+            case ARC:
+                return new ARCCache<>(capacity);
             default:
                 throw new IllegalArgumentException("Unsupported cache strategy: " + strategy);
         }
+    }
 
-        dataCache.setStalePolicy(new CacheStalePolicy<String, String>() {
+    private static <V> void setCapacityPolicy(final ObservableCache<String, V> dataCache,
+                                              final int capacity) {
+        dataCache.setStalePolicy(new CacheStalePolicy<String, V>() {
             @Override
-            public boolean shouldRemoveEldestEntry(final Pair<String, String> entry) {
+            public boolean shouldRemoveEldestEntry(final Pair<String, V> entry) {
                 return dataCache.size() > capacity;
             }
         });
-
-        return new cachingSystem.FileCache(dataCache);
     }
 
     public static cachingSystem.FileCache createCacheWithExpiration(final long millisToExpire) {
@@ -51,61 +189,595 @@ public final class FileCache {
 
         dataCache.setExpirePolicy(millisToExpire);
 
-        return new cachingSystem.FileCache(dataCache);
+        return new cachingSystem.FileCache(dataCache, true);
     }
 
-    private FileCache(final ObservableCache<String, String> dataCache) {
+    /**
+     * Create a cache whose expired files are also removed in the background, every
+     * @cleanUpPeriodMillis milliseconds, so that memory is released even if the cache is idle.
+     * Each run removes a bounded number of files, and the requests served meanwhile only remove
+     * a few expired files each, so their latency does not depend on how many files expired.
+     *
+     * @param millisToExpire      the time after which a file expires if it is not accessed
+     * @param cleanUpPeriodMillis the time between two background clean ups
+     * @return the file cache
+     */
+    public static cachingSystem.FileCache createCacheWithExpiration(
+            final long millisToExpire, final long cleanUpPeriodMillis) {
+        TimeAwareCache<String, String> dataCache = new TimeAwareCache<>();
+
+        dataCache.setExpirePolicy(millisToExpire);
+        dataCache.scheduleCleanUp(CLEAN_UP_SCHEDULER, cleanUpPeriodMillis, CLEAN_UP_BUDGET);
+
+        return new cachingSystem.FileCache(dataCache, true);
+    }
+
+    private FileCache(final ObservableCache<String, String> dataCache, final boolean threadSafe) {
         this.dataCache = dataCache;
+        this.threadSafe = threadSafe;
         this.broadcastListener = new BroadcastListener<>();
 
         this.dataCache.setCacheListener(broadcastListener);
+        this.eventListener = broadcastListener;
 
-        broadcastListener.addListener(createCacheListener());
+        this.cacheLoader = createFileLoader();
+        this.storingLoader = createStoringLoader();
+        this.pendingLoads = new SingleFlight<>();
+        this.loaderExecutor = DEFAULT_LOADER_EXECUTOR;
     }
 
-    private CacheListener<String, String> createCacheListener() {
-        return new CacheListener<String, String>() {
-            @Override
-            public void onHit(final String key) {
+    /**
+     * Creeaza executorul folosit pentru incarcarile asincrone. Pe Java 21+ fiecare incarcare
+     * primeste un fir virtual; altfel se folosesc fire daemon reutilizabile.
+     *
+     * @return Executorul pentru incarcari.
+     */
+    private static Executor createLoaderExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(runnable,
+                            "file-cache-loader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Creeaza firul daemon comun ce curata in fundal cache-urile cu expirare.
+     *
+     * @return Executorul pentru curatare.
+     */
+    private static ScheduledExecutorService createCleanUpScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        Thread thread = new Thread(runnable, "file-cache-clean-up");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
 
+    private static CacheLoader<String, String> createFileLoader() {
+        return new CacheLoader<String, String>() {
+            @Override
+            public String load(final String key) throws IOException {
+                return new String(Files.readAllBytes(Paths.get(key)));
             }
+        };
+    }
 
+    /**
+     * Loader-ul folosit de incarcarile unice: citeste fisierul si il adauga in cache.
+     *
+     * @return Loader-ul ce populeaza cache-ul.
+     */
+    private CacheLoader<String, String> createStoringLoader() {
+        return new CacheLoader<String, String>() {
             @Override
-            public void onMiss(final String key) {
-                String content = null;
-                try {
-                    content = new String(Files.readAllBytes(Paths.get(key)));
-                } catch (IOException e) {
-                    e.printStackTrace();
+            public String load(final String key) throws IOException {
+                String contents = loadFile(key);
+                if (contents != null) {
+                    putFileContents(key, contents);
                 }
-                putFileContents(key, content);
+                return contents;
             }
+        };
+    }
 
-            @Override
-            public void onPut(final String key, final String value) {
+    /**
+     * Incarca un fisier si anunta durata incarcarii, reusite sau nu.
+     *
+     * @param path Adresa fisierului.
+     * @return Continutul fisierului.
+     * @throws IOException daca fisierul nu poate fi citit
+     */
+    private String loadFile(final String path) throws IOException {
+        LatencyHistogram[] histograms = latencyHistograms;
+        long start = System.nanoTime();
+        try {
+            String contents = readFile(path);
+            if (contents == null) {
+                eventListener.onLoadFailure(path, System.nanoTime() - start);
+            } else {
+                eventListener.onLoadSuccess(path, System.nanoTime() - start);
+            }
+            return contents;
+        } catch (IOException | RuntimeException e) {
+            eventListener.onLoadFailure(path, System.nanoTime() - start);
+            throw e;
+        } finally {
+            recordLatency(histograms, Operation.LOAD, start);
+        }
+    }
 
+    private static void recordLatency(final LatencyHistogram[] histograms,
+                                      final Operation operation, final long start) {
+        if (histograms != null) {
+            histograms[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Citeste un fisier cu loader-ul curent. Fisierul este urmarit, iar daca validarea este
+     * activa, atributele lui sunt citite inainte de continut, astfel incat o modificare facuta in
+     * timpul citirii sa fie detectata ulterior.
+     *
+     * @param path Adresa fisierului.
+     * @return Continutul fisierului.
+     * @throws IOException daca fisierul nu poate fi citit
+     */
+    private String readFile(final String path) throws IOException {
+        FileWatcher watcher = fileWatcher;
+        if (watcher != null) {
+            watcher.register(path);
+        }
+        if (validationIntervalNanos == NO_VALIDATION) {
+            return cacheLoader.load(path);
+        }
+
+        BasicFileAttributes attributes = readAttributes(path);
+        String contents = cacheLoader.load(path);
+        if (attributes != null && contents != null) {
+            expungeStaleStamps();
+            fileStamps.put(path, new FileStamp(path, contents, attributes, System.nanoTime(),
+                    collectedContents));
+        }
+        return contents;
+    }
+
+    /**
+     * Verifica daca fisierul din care provine continutul cache-uit s-a schimbat. Atributele sunt
+     * citite cel mult o data pe interval; fisierele fara amprenta (adaugate direct in cache) nu
+     * sunt validate.
+     *
+     * @param path     Adresa fisierului.
+     * @param contents Continutul din cache.
+     * @return true daca fisierul a fost modificat sau sters
+     */
+    private boolean isStale(final String path, final String contents) {
+        if (validationIntervalNanos == NO_VALIDATION) {
+            return false;
+        }
+
+        FileStamp stamp = fileStamps.get(path);
+        long now = System.nanoTime();
+        if (stamp == null || stamp.get() != contents
+                || now - stamp.checkedAt < validationIntervalNanos) {
+            return false;
+        }
+
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes != null && stamp.matches(attributes)) {
+            stamp.checkedAt = now;
+            return false;
+        }
+
+        fileStamps.remove(path, stamp);
+        dataCache.remove(path);
+        return true;
+    }
+
+    /**
+     * Aplica modificarile raportate de watcher pe firul apelantului: fisierele modificate sunt
+     * eliminate din cache si, in modul RELOAD, reincarcate in fundal.
+     */
+    private void applyFileChanges() {
+        FileWatcher watcher = fileWatcher;
+        if (watcher == null) {
+            return;
+        }
+
+        String path = watcher.pollChanged();
+        while (path != null) {
+            if (dataCache.remove(path) != null && watchMode == WatchMode.RELOAD) {
+                pendingLoads.loadAsync(path, storingLoader, loaderExecutor);
             }
-        };
+            path = watcher.pollChanged();
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(final String path) {
+        try {
+            return Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Elimina amprentele fisierelor al caror continut nu mai este retinut de cache.
+     */
+    private void expungeStaleStamps() {
+        Reference<? extends String> reference = collectedContents.poll();
+        while (reference != null) {
+            FileStamp stamp = (FileStamp) reference;
+            fileStamps.remove(stamp.path, stamp);
+            reference = collectedContents.poll();
+        }
     }
 
+    /**
+     * Replace the loader used for the files that are missing from the cache. By default, files
+     * are read from the disk.
+     *
+     * @param cacheLoader the loader
+     */
+    public void setCacheLoader(final CacheLoader<String, String> cacheLoader) {
+        this.cacheLoader = cacheLoader;
+    }
+
+    /**
+     * Get the contents of a file. On a miss the file is loaded and stored in the cache; concurrent
+     * callers that miss on the same path wait for that single load instead of starting their own.
+     *
+     * @param path the path of the file
+     * @return the contents of the file
+     * @throws UncheckedIOException if the file could not be loaded
+     */
     public String getFileContents(final String path) {
-        String fileContents;
+        LatencyHistogram[] histograms = latencyHistograms;
+        long start = histograms == null ? 0 : System.nanoTime();
+
+        applyFileChanges();
+        String fileContents = dataCache.get(path);
+
+        if (fileContents != null && !isStale(path, fileContents)) {
+            recordLatency(histograms, Operation.HIT, start);
+            return fileContents;
+        }
+        try {
+            return pendingLoads.load(path, storingLoader);
+        } finally {
+            recordLatency(histograms, Operation.MISS, start);
+        }
+    }
+
+    /**
+     * Get the contents of a file without blocking the caller. Hits complete immediately; misses
+     * are loaded on the loader executor, which uses virtual threads when the runtime supports
+     * them. The loaded file is stored in the cache from the loader thread, so only caches created
+     * with createConcurrentCacheWithCapacity or createCacheWithExpiration support this method.
+     *
+     * @param path the path of the file
+     * @return a future completed with the contents of the file, or with the load failure
+     * @throws IllegalStateException if the cache is not thread-safe
+     */
+    public CompletableFuture<String> getFileContentsAsync(final String path) {
+        if (!threadSafe) {
+            throw new IllegalStateException("Asynchronous loads require a thread-safe cache");
+        }
+
+        LatencyHistogram[] histograms = latencyHistograms;
+        long start = histograms == null ? 0 : System.nanoTime();
+
+        applyFileChanges();
+        String fileContents = dataCache.get(path);
+
+        if (fileContents != null && !isStale(path, fileContents)) {
+            recordLatency(histograms, Operation.HIT, start);
+            return CompletableFuture.completedFuture(fileContents);
+        }
+
+        CompletableFuture<String> load = pendingLoads.loadAsync(path, storingLoader,
+                loaderExecutor);
+        if (histograms == null) {
+            return load;
+        }
+        return load.whenComplete(new BiConsumer<String, Throwable>() {
+            @Override
+            public void accept(final String contents, final Throwable failure) {
+                recordLatency(histograms, Operation.MISS, start);
+            }
+        });
+    }
 
-        do {
-            fileContents = dataCache.get(path);
-        } while (fileContents == null);
+    /**
+     * Replace the executor that loads the files requested through getFileContentsAsync.
+     *
+     * @param loaderExecutor the executor
+     */
+    public void setLoaderExecutor(final Executor loaderExecutor) {
+        this.loaderExecutor = loaderExecutor;
+    }
+
+    /**
+     * Reload the files that are read once @fraction of their expiration time has passed since
+     * they were loaded. The files are reloaded in the background, with the cache loader and on
+     * the loader executor, and the cached contents keep being served meanwhile, so files that are
+     * read often are never missed because they expired. Only caches created with
+     * createCacheWithExpiration support refreshing.
+     *
+     * @param fraction the part of the expiration time after which files are reloaded, in (0, 1]
+     */
+    public void setRefreshAfterWrite(final double fraction) {
+        if (!(dataCache instanceof TimeAwareCache)) {
+            throw new IllegalStateException("The cache does not support refreshing");
+        }
 
-        return fileContents;
+        ((TimeAwareCache<String, String>) dataCache).setRefreshAfterWrite(fraction,
+                new CacheLoader<String, String>() {
+                    @Override
+                    public String load(final String key) throws IOException {
+                        return loadFile(key);
+                    }
+                },
+                new Executor() {
+                    @Override
+                    public void execute(final Runnable command) {
+                        loaderExecutor.execute(command);
+                    }
+                });
+    }
+
+    /**
+     * Validate the cached files against the disk. The last modified time and the size of each
+     * file are recorded when it is loaded; a file read more than @checkIntervalMillis
+     * milliseconds after its last check is compared again with a single stat, and it is read
+     * again only if it changed. Files stored with putFileContents are not validated.
+     *
+     * @param checkIntervalMillis the time between two checks of a file, in milliseconds
+     */
+    public void setValidationInterval(final long checkIntervalMillis) {
+        if (checkIntervalMillis < 0) {
+            throw new IllegalArgumentException("Invalid check interval: " + checkIntervalMillis);
+        }
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis);
+    }
+
+    /**
+     * Watch the directories of the files loaded from now on, and drop the cached files that are
+     * modified or deleted on disk. The changes are detected in the background and applied by the
+     * next request for a file. In RELOAD mode the changed files are also reloaded on the loader
+     * executor, so, like getFileContentsAsync, it is only supported by caches created with
+     * createConcurrentCacheWithCapacity or createCacheWithExpiration. With watching enabled, long
+     * expiration times can be used for mostly static files without serving stale contents.
+     *
+     * @param mode INVALIDATE to drop the changed files, RELOAD to also reload them
+     * @throws java.io.UncheckedIOException if the file system cannot be watched
+     * @throws IllegalStateException if RELOAD is requested on a cache that is not thread-safe
+     */
+    public void watchFiles(final WatchMode mode) {
+        if (mode == WatchMode.RELOAD && !threadSafe) {
+            throw new IllegalStateException("Reloading changed files requires a thread-safe cache");
+        }
+        if (fileWatcher == null) {
+            fileWatcher = new FileWatcher(this);
+        }
+        watchMode = mode;
+    }
+
+    /**
+     * Stop watching the cached files.
+     */
+    public void stopWatching() {
+        FileWatcher watcher = fileWatcher;
+        fileWatcher = null;
+        if (watcher != null) {
+            watcher.close();
+        }
     }
 
     public void putFileContents(final String path, final String contents) {
+        LatencyHistogram[] histograms = latencyHistograms;
+        long start = histograms == null ? 0 : System.nanoTime();
+
         dataCache.put(path, contents);
+        recordLatency(histograms, Operation.PUT, start);
+    }
+
+    /**
+     * Store the contents of a file with its own expiration time. Only caches created with
+     * createCacheWithExpiration support per-file expiration times.
+     *
+     * @param path           the path of the file
+     * @param contents       the contents of the file
+     * @param millisToExpire the time after which the file expires if it is not accessed
+     */
+    public void putFileContents(final String path, final String contents,
+                                final long millisToExpire) {
+        if (!(dataCache instanceof TimeAwareCache)) {
+            throw new IllegalStateException("The cache does not support expiration times");
+        }
+
+        LatencyHistogram[] histograms = latencyHistograms;
+        long start = histograms == null ? 0 : System.nanoTime();
+
+        ((TimeAwareCache<String, String>) dataCache)
+                .putWithExpiration(path, contents, millisToExpire);
+        recordLatency(histograms, Operation.PUT, start);
+    }
+
+    /**
+     * Get the total weight of the stored files, for caches created with a maximum weight.
+     *
+     * @return the weighted size
+     */
+    public long getWeightedSize() {
+        return dataCache.getWeightedSize();
     }
 
     public void addListener(final CacheListener<String, String> listener) {
         broadcastListener.addListener(listener);
     }
 
+    /**
+     * Start recording the latency of every operation in a histogram: lookups served from the
+     * cache (HIT), lookups that had to wait for a load (MISS), the loads themselves (LOAD) and
+     * the puts (PUT). The histograms can be read with getLatencies.
+     */
+    public synchronized void recordLatencies() {
+        if (latencyHistograms == null) {
+            LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+            latencyHistograms = histograms;
+        }
+    }
+
+    /**
+     * Get the live latency histogram of an operation. To report latencies per interval, call
+     * copyAndReset on it at the end of each interval.
+     *
+     * @param operation the operation
+     * @return the histogram, in nanoseconds
+     * @throws IllegalStateException if recordLatencies was not called
+     */
+    public LatencyHistogram getLatencies(final Operation operation) {
+        LatencyHistogram[] histograms = latencyHistograms;
+        if (histograms == null) {
+            throw new IllegalStateException("The latencies are not recorded");
+        }
+        return histograms[operation.ordinal()];
+    }
+
+    /**
+     * Start collecting the statistics returned by getStats.
+     */
+    public synchronized void recordStats() {
+        if (statsListener == null) {
+            statsListener = new StatsListener<>();
+            addListener(statsListener);
+        }
+    }
+
+    /**
+     * Get a snapshot of the statistics of the cache, including its current weighted size.
+     *
+     * @return the statistics
+     * @throws IllegalStateException if recordStats was not called
+     */
+    public CacheStats getStats() {
+        StatsListener<String, String> stats = statsListener;
+        if (stats == null) {
+            throw new IllegalStateException("The statistics are not recorded");
+        }
+        return stats.snapshot().withWeightedSize(dataCache.getWeightedSize());
+    }
+
+    /**
+     * Start collecting the statistics returned by getRecentStats, over a sliding window of the
+     * last @windowMillis.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     * @throws IllegalStateException if the recent statistics are already recorded
+     */
+    public synchronized void recordRecentStats(final long windowMillis) {
+        if (recentStatsListener != null) {
+            throw new IllegalStateException("The recent statistics are already recorded");
+        }
+        WindowedStatsListener<String, String> listener = new WindowedStatsListener<>(windowMillis);
+        addListener(listener);
+        recentStatsListener = listener;
+    }
+
+    /**
+     * Get a snapshot of the statistics of the cache over the recent window, including its current
+     * weighted size.
+     *
+     * @return the statistics
+     * @throws IllegalStateException if recordRecentStats was not called
+     */
+    public CacheStats getRecentStats() {
+        WindowedStatsListener<String, String> stats = recentStatsListener;
+        if (stats == null) {
+            throw new IllegalStateException("The recent statistics are not recorded");
+        }
+        return stats.snapshot().withWeightedSize(dataCache.getWeightedSize());
+    }
+
+    /**
+     * Deliver the cache events to the listeners on a background thread instead of the thread that
+     * accesses the cache, so slow listeners do not add to the latency of the requests. Up to
+     * @bufferSize events can be pending; when the buffer is full, the overflow policy decides
+     * whether events are dropped or the requests wait.
+     *
+     * @param bufferSize     the number of events that can be pending
+     * @param overflowPolicy what to do when the buffer is full
+     * @return the asynchronous listener, which reports the dropped events
+     */
+    public AsyncBroadcastListener<String, String> dispatchEventsAsynchronously(
+            final int bufferSize, final AsyncBroadcastListener.OverflowPolicy overflowPolicy) {
+        AsyncBroadcastListener<String, String> asyncListener =
+                new AsyncBroadcastListener<>(broadcastListener, bufferSize, overflowPolicy);
+
+        dataCache.setCacheListener(asyncListener);
+        eventListener = asyncListener;
+        return asyncListener;
+    }
+
     private ObservableCache<String, String> dataCache;
+    private final boolean threadSafe;
     private BroadcastListener<String, String> broadcastListener;
+    private volatile CacheListener<String, String> eventListener;
+    private volatile StatsListener<String, String> statsListener;
+    private volatile WindowedStatsListener<String, String> recentStatsListener;
+    private volatile LatencyHistogram[] latencyHistograms;
+    private CacheLoader<String, String> cacheLoader;
+    private CacheLoader<String, String> storingLoader;
+    private SingleFlight<String, String> pendingLoads;
+    private Executor loaderExecutor;
+    private volatile long validationIntervalNanos = NO_VALIDATION;
+    private volatile FileWatcher fileWatcher;
+    private volatile WatchMode watchMode;
+    private final ConcurrentHashMap<String, FileStamp> fileStamps = new ConcurrentHashMap<>();
+    private final ReferenceQueue<String> collectedContents = new ReferenceQueue<>();
+
+    /**
+     * Amprenta unui fisier la momentul incarcarii. Retine continutul printr-o referinta slaba:
+     * cand cache-ul renunta la continut, amprenta este eliminata la urmatoarea incarcare.
+     */
+    private static final class FileStamp extends WeakReference<String> {
+        private final String path;
+        private final long lastModified;
+        private final long size;
+        private volatile long checkedAt;
+
+        FileStamp(final String path, final String contents, final BasicFileAttributes attributes,
+                  final long checkedAt, final ReferenceQueue<String> queue) {
+            super(contents, queue);
+            this.path = path;
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.checkedAt = checkedAt;
+        }
+
+        boolean matches(final BasicFileAttributes attributes) {
+            return attributes.lastModifiedTime().toMillis() == lastModified
+                    && attributes.size() == size;
+        }
+    }
 }
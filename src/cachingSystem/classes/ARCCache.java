@@ -0,0 +1,301 @@
+package cachingSystem.classes;
+
+import dataStructures.classes.Pair;
+
+import java.util.HashMap;
+
+/**
+ * The ARCCache implements the Adaptive Replacement Cache policy. Resident entries are split in
+ * two LRU lists: T1 holds the entries seen once recently and T2 the entries seen at least twice.
+ * The keys evicted from each list are remembered, without their values, in the ghost lists B1
+ * and B2. A miss on a key from B1 means T1 was too small, a miss on a key from B2 means T2 was,
+ * and the target size of T1 is adjusted accordingly; the cache thereby tunes itself between
+ * recency and frequency as the workload changes.
+ *
+ * <p>The cache keeps itself within its capacity; the stale policy, if any, is applied on top.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ARCCache<K, V> extends ObservableCache<K, V> {
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final HashMap<K, Entry<K, V>> data;
+    private final NodeDeque<K, V> recent;
+    private final NodeDeque<K, V> frequent;
+    private final NodeDeque<K, V> recentGhosts;
+    private final NodeDeque<K, V> frequentGhosts;
+    private final int capacity;
+    private int targetRecentSize;
+
+    /**
+     * Create a cache that holds at most @capacity entries.
+     *
+     * @param capacity the capacity
+     */
+    public ARCCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+
+        this.data = new HashMap<>();
+        this.recent = new NodeDeque<>();
+        this.frequent = new NodeDeque<>();
+        this.recentGhosts = new NodeDeque<>();
+        this.frequentGhosts = new NodeDeque<>();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the current target size of T1, the list of the entries seen once.
+     *
+     * @return the target size
+     */
+    public final int getTargetRecentSize() {
+        return targetRecentSize;
+    }
+
+    @Override
+    public V get(final K key) {
+        Entry<K, V> entry = data.get(key);
+        if (entry == null || isGhost(entry)) {
+            this.cacheListener.onMiss(key);
+            return null;
+        }
+
+        promote(entry);
+        this.cacheListener.onHit(key);
+        return entry.getValue();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        Entry<K, V> entry = data.get(key);
+
+        if (entry != null && !isGhost(entry)) {
+            recordReplacement(key, entry.getValue(), value);
+            entry.setValue(value);
+            promote(entry);
+        } else if (entry != null) {
+            boolean frequentGhost = entry.list == B2;
+            adapt(frequentGhost);
+            if (isFull()) {
+                replace(frequentGhost);
+            }
+
+            queueOf(entry).unlink(entry);
+            entry.setValue(value);
+            entry.list = T2;
+            frequent.linkLast(entry);
+            recordInsertion(key, value);
+        } else {
+            makeRoomForNewKey();
+
+            entry = new Entry<>(key, value);
+            data.put(key, entry);
+            recent.linkLast(entry);
+            recordInsertion(key, value);
+        }
+
+        this.clearStaleEntries();
+        this.cacheListener.onPut(key, value);
+    }
+
+    @Override
+    public int size() {
+        return recent.size() + frequent.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove a key from the cache, without remembering it in a ghost list.
+     *
+     * @param key the key to be removed
+     * @return the value associated with the key, or null if the key was not in the cache
+     */
+    @Override
+    public V remove(final K key) {
+        Entry<K, V> entry = data.get(key);
+        if (entry == null || isGhost(entry)) {
+            return null;
+        }
+
+        data.remove(key);
+        queueOf(entry).unlink(entry);
+        recordRemoval(key, entry.getValue());
+        return entry.getValue();
+    }
+
+    @Override
+    public void clearAll() {
+        data.clear();
+        recent.clear();
+        frequent.clear();
+        recentGhosts.clear();
+        frequentGhosts.clear();
+        targetRecentSize = 0;
+        resetWeight();
+    }
+
+    /**
+     * Return the entry ARC would evict next: the eldest entry of T1 if T1 is above its target
+     * size, the eldest entry of T2 otherwise.
+     *
+     * @return the next victim, or null if the cache is empty
+     */
+    @Override
+    public Pair<K, V> getEldestEntry() {
+        Node<K, V> victim = selectVictim(false);
+        return victim == null ? null : new Pair<>(victim.getKey(), victim.getValue());
+    }
+
+    @Override
+    Pair<K, V> peekEldest() {
+        return selectVictim(false);
+    }
+
+    private boolean isFull() {
+        return size() >= capacity;
+    }
+
+    private static boolean isGhost(final Entry<?, ?> entry) {
+        return entry.list == B1 || entry.list == B2;
+    }
+
+    /**
+     * O intrare accesata din nou devine cea mai recenta intrare din T2.
+     *
+     * @param entry Intrarea accesata.
+     */
+    private void promote(final Entry<K, V> entry) {
+        if (entry.list == T2) {
+            frequent.moveToBack(entry);
+            return;
+        }
+        recent.unlink(entry);
+        entry.list = T2;
+        frequent.linkLast(entry);
+    }
+
+    /**
+     * Ajusteaza dimensiunea tinta a lui T1 la un miss pe o cheie fantoma: o cheie din B1 arata
+     * ca T1 ar fi trebuit sa fie mai mare, iar una din B2 ca T2 ar fi trebuit sa fie mai mare.
+     *
+     * @param frequentGhost true daca cheia se afla in B2
+     */
+    private void adapt(final boolean frequentGhost) {
+        if (frequentGhost) {
+            int delta = Math.max(recentGhosts.size() / frequentGhosts.size(), 1);
+            targetRecentSize = Math.max(0, targetRecentSize - delta);
+        } else {
+            int delta = Math.max(frequentGhosts.size() / recentGhosts.size(), 1);
+            targetRecentSize = Math.min(capacity, targetRecentSize + delta);
+        }
+    }
+
+    /**
+     * Face loc pentru o cheie care nu se afla nici in cache, nici in listele fantoma, pastrand
+     * |T1| + |B1| <= c si |T1| + |T2| + |B1| + |B2| <= 2c.
+     */
+    private void makeRoomForNewKey() {
+        int recentHistory = recent.size() + recentGhosts.size();
+        int totalHistory = recentHistory + frequent.size() + frequentGhosts.size();
+
+        if (recentHistory >= capacity) {
+            if (recent.size() < capacity) {
+                dropGhost(recentGhosts);
+                if (isFull()) {
+                    replace(false);
+                }
+            } else {
+                Entry<K, V> eldest = (Entry<K, V>) recent.pollFirst();
+                data.remove(eldest.getKey());
+                recordRemoval(eldest.getKey(), eldest.getValue());
+                this.cacheListener.onEvict(eldest.getKey(), eldest.getValue());
+            }
+        } else if (totalHistory >= capacity) {
+            if (totalHistory >= 2 * capacity) {
+                dropGhost(frequentGhosts);
+            }
+            if (isFull()) {
+                replace(false);
+            }
+        }
+    }
+
+    /**
+     * Evacueaza victima aleasa de ARC si ii pastreaza cheia in lista fantoma corespunzatoare.
+     *
+     * @param frequentGhost true daca cererea curenta a lovit o cheie din B2
+     */
+    private void replace(final boolean frequentGhost) {
+        Entry<K, V> victim = (Entry<K, V>) selectVictim(frequentGhost);
+        if (victim == null) {
+            return;
+        }
+
+        recordRemoval(victim.getKey(), victim.getValue());
+        this.cacheListener.onEvict(victim.getKey(), victim.getValue());
+        victim.setValue(null);
+        if (victim.list == T1) {
+            recent.unlink(victim);
+            victim.list = B1;
+            recentGhosts.linkLast(victim);
+        } else {
+            frequent.unlink(victim);
+            victim.list = B2;
+            frequentGhosts.linkLast(victim);
+        }
+    }
+
+    private Node<K, V> selectVictim(final boolean frequentGhost) {
+        int recentSize = recent.size();
+        boolean fromRecent = recentSize > 0
+                && (recentSize > targetRecentSize
+                || (frequentGhost && recentSize == targetRecentSize)
+                || frequent.isEmpty());
+
+        return fromRecent ? recent.peekFirst() : frequent.peekFirst();
+    }
+
+    private void dropGhost(final NodeDeque<K, V> ghosts) {
+        Node<K, V> ghost = ghosts.pollFirst();
+        if (ghost != null) {
+            data.remove(ghost.getKey());
+        }
+    }
+
+    private NodeDeque<K, V> queueOf(final Entry<K, V> entry) {
+        switch (entry.list) {
+            case T1:
+                return recent;
+            case T2:
+                return frequent;
+            case B1:
+                return recentGhosts;
+            case B2:
+                return frequentGhosts;
+            default:
+                throw new IllegalStateException("Unknown list: " + entry.list);
+        }
+    }
+
+    /**
+     * Nod ce retine si lista din care face parte intrarea.
+     */
+    private static final class Entry<K, V> extends Node<K, V> {
+        private int list;
+
+        Entry(final K key, final V value) {
+            super(null, null, key, value);
+            this.list = T1;
+        }
+    }
+}
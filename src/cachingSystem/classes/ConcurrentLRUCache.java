@@ -0,0 +1,308 @@
+package cachingSystem.classes;
+
+import dataStructures.classes.Pair;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe LRU cache whose hits do not touch the recency list. A hit is a single lookup in a
+ * ConcurrentHashMap followed by recording the node in a striped, lossy read buffer. The buffered
+ * accesses are replayed on the recency list in batches, by whichever thread acquires the eviction
+ * lock first. Writes, removals and evictions are performed under the eviction lock and always
+ * drain the read buffers first, so the eviction order stays very close to the one of LRUCache.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ConcurrentLRUCache<K, V> extends ObservableCache<K, V> {
+    private static final int BUFFER_SIZE = 32;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+    private static final int MAX_STRIPES = 64;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock evictionLock;
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int stripeMask;
+
+    /* Lista de recenta, protejata de evictionLock: leastRecentlyUsed -> mostRecentlyUsed. */
+    private Node<K, V> leastRecentlyUsed;
+    private Node<K, V> mostRecentlyUsed;
+
+    public ConcurrentLRUCache() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a cache with one read buffer for every expected concurrent reader.
+     *
+     * @param concurrencyLevel the estimated number of threads that read the cache at once
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentLRUCache(final int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency level: " + concurrencyLevel);
+        }
+
+        int stripes = Integer.highestOneBit(Math.min(concurrencyLevel, MAX_STRIPES));
+        if (stripes < concurrencyLevel && stripes < MAX_STRIPES) {
+            stripes *= 2;
+        }
+
+        data = new ConcurrentHashMap<>();
+        evictionLock = new ReentrantLock();
+        readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        stripeMask = stripes - 1;
+    }
+
+    /**
+     * Returneaza continutul fisierului fara a modifica lista de recenta. Accesul este doar
+     * inregistrat in buffer-ul firului curent, iar buffer-ul este golit atunci cand se umple.
+     *
+     * @param key Adresa fisierului pe care dorim sa il cautam.
+     * @return Continutul fisierului cautat, sau null in caz ca acesta nu exista in cache.
+     */
+    @Override
+    public V get(final K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            this.cacheListener.onMiss(key);
+            return null;
+        }
+
+        V value = node.getValue();
+        ReadBuffer<K, V> buffer = readBuffers[stripeOfCurrentThread()];
+        if (buffer.offer(node) >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        this.cacheListener.onHit(key);
+        return value;
+    }
+
+    /**
+     * Adauga sau suprascrie continutul unui fisier. Valoarea noua primeste un nod nou, astfel
+     * incat cititorii care nu iau lock-ul vad doar noduri complet construite.
+     *
+     * @param key   Adresa fisierului pe care dorim sa il adaugam.
+     * @param value Continutul fisierului.
+     */
+    @Override
+    public void put(final K key, final V value) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+
+            Node<K, V> newNode = new Node<>(null, null, key, value);
+            Node<K, V> oldNode = data.put(key, newNode);
+            if (oldNode != null) {
+                unlink(oldNode);
+                recordReplacement(key, oldNode.getValue(), value);
+            } else {
+                recordInsertion(key, value);
+            }
+            linkLast(newNode);
+
+            this.clearStaleEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+        this.cacheListener.onPut(key, value);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public V remove(final K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            recordRemoval(key, node.getValue());
+            return node.getValue();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            data.clear();
+            leastRecentlyUsed = null;
+            mostRecentlyUsed = null;
+            resetWeight();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return super.getWeightedSize();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Return the least recently used entry, after replaying all the buffered accesses.
+     *
+     * @return the eldest entry, or null if the cache is empty
+     */
+    @Override
+    public Pair<K, V> getEldestEntry() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            if (leastRecentlyUsed == null) {
+                return null;
+            }
+            return new Pair<>(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    Pair<K, V> peekEldest() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            return leastRecentlyUsed;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Muta la finalul listei de recenta toate nodurile inregistrate in buffere. Nodurile care
+     * au fost intre timp eliminate sau inlocuite sunt ignorate. Trebuie apelata cu lock-ul luat.
+     */
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            Node<K, V> node = buffer.poll();
+            while (node != null) {
+                if (data.get(node.getKey()) == node && node != mostRecentlyUsed) {
+                    unlink(node);
+                    linkLast(node);
+                }
+                node = buffer.poll();
+            }
+        }
+    }
+
+    private void linkLast(final Node<K, V> node) {
+        node.setPrev(mostRecentlyUsed);
+        node.setNext(null);
+        if (mostRecentlyUsed == null) {
+            leastRecentlyUsed = node;
+        } else {
+            mostRecentlyUsed.setNext(node);
+        }
+        mostRecentlyUsed = node;
+    }
+
+    private void unlink(final Node<K, V> node) {
+        Node<K, V> prev = node.getPrev();
+        Node<K, V> next = node.getNext();
+
+        if (prev == null) {
+            leastRecentlyUsed = next;
+        } else {
+            prev.setNext(next);
+        }
+        if (next == null) {
+            mostRecentlyUsed = prev;
+        } else {
+            next.setPrev(prev);
+        }
+        node.setPrev(null);
+        node.setNext(null);
+    }
+
+    @SuppressWarnings("deprecation")
+    private int stripeOfCurrentThread() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> Integer.SIZE)) & stripeMask;
+    }
+
+    /**
+     * Buffer circular cu mai multi producatori (cititorii) si un singur consumator (firul care
+     * detine lock-ul de evictie). Daca buffer-ul este plin sau doi cititori concureaza pentru
+     * acelasi slot, accesul este pierdut; ordinea LRU devine astfel doar aproximativa.
+     */
+    private static final class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> slots =
+                new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        /**
+         * Inregistreaza un acces.
+         *
+         * @param node Nodul accesat.
+         * @return Numarul de accese aflate in asteptare.
+         */
+        long offer(final Node<K, V> node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long pending = tail - head;
+
+            if (pending >= BUFFER_SIZE) {
+                return pending;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & BUFFER_MASK), node);
+                return pending + 1;
+            }
+            return pending;
+        }
+
+        /**
+         * Extrage urmatorul acces, sau null daca nu exista accese publicate.
+         *
+         * @return Nodul accesat, sau null.
+         */
+        Node<K, V> poll() {
+            long head = readCounter;
+            if (head == writeCounter.get()) {
+                return null;
+            }
+
+            int index = (int) (head & BUFFER_MASK);
+            Node<K, V> node = slots.get(index);
+            if (node == null) {
+                return null;
+            }
+            slots.lazySet(index, null);
+            readCounter = head + 1;
+            return node;
+        }
+    }
+}
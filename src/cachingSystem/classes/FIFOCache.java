@@ -3,28 +3,52 @@ package cachingSystem.classes;
 import cachingSystem.interfaces.Cache;
 import dataStructures.classes.Pair;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.HashMap;
 
 /**
  * The FIFOCache class should be considered a blackbox. All you need is its API!
  */
 public class FIFOCache<K, V> implements Cache<K, V> {
 
-    private LinkedHashMap<K, V> cache;
+    private HashMap<K, Node<K, V>> cache;
+    private NodeDeque<K, V> insertionOrder;
 
     public FIFOCache() {
-        cache = new LinkedHashMap<>();
+        cache = new HashMap<>();
+        insertionOrder = new NodeDeque<>();
     }
 
     @Override
     public final V get(final K key) {
-        return cache.get(key);
+        Node<K, V> node = cache.get(key);
+        return node == null ? null : node.getValue();
     }
 
     @Override
     public final void put(final K key, final V value) {
-        cache.put(key, value);
+        update(key, value);
+    }
+
+    /**
+     * Adauga o intrare noua la sfarsitul ordinii de inserare, sau inlocuieste valoarea unei
+     * intrari existente fara a-i schimba pozitia.
+     *
+     * @param key   Cheia.
+     * @param value Valoarea noua.
+     * @return Valoarea veche, sau null daca cheia nu exista.
+     */
+    final V update(final K key, final V value) {
+        Node<K, V> node = cache.get(key);
+        if (node != null) {
+            V oldValue = node.getValue();
+            node.setValue(value);
+            return oldValue;
+        }
+
+        node = new Node<>(null, null, key, value);
+        cache.put(key, node);
+        insertionOrder.linkLast(node);
+        return null;
     }
 
     @Override
@@ -39,12 +63,19 @@ public class FIFOCache<K, V> implements Cache<K, V> {
 
     @Override
     public final V remove(final K key) {
-        return cache.remove(key);
+        Node<K, V> node = cache.remove(key);
+        if (node == null) {
+            return null;
+        }
+
+        insertionOrder.unlink(node);
+        return node.getValue();
     }
 
     @Override
     public final void clearAll() {
         cache.clear();
+        insertionOrder.clear();
     }
 
     @Override
@@ -53,8 +84,17 @@ public class FIFOCache<K, V> implements Cache<K, V> {
             return null;
         }
 
-        Map.Entry<K, V> eldest = cache.entrySet().iterator().next();
+        Node<K, V> eldest = insertionOrder.peekFirst();
 
         return new Pair<K, V>(eldest.getKey(), eldest.getValue());
     }
+
+    /**
+     * Returneaza nodul celei mai vechi intrari, fara copiere.
+     *
+     * @return Nodul, sau null daca cache-ul este gol.
+     */
+    final Node<K, V> peekEldest() {
+        return insertionOrder.peekFirst();
+    }
 }
@@ -0,0 +1,190 @@
+package cachingSystem.classes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directories of the registered files with a WatchService and reports the files that
+ * were created, modified or deleted. The events are collected by a daemon thread and queued; the
+ * owner of the watcher polls the queue from its own threads, so a cache that is not thread-safe
+ * is never touched by the watcher thread. The thread stops when the watcher is closed, or once
+ * its owner is garbage collected.
+ */
+public final class FileWatcher implements Closeable {
+    private static final long POLL_MILLIS = 1000;
+
+    private final WatchService watchService;
+    private final ConcurrentHashMap<Path, Boolean> watchedDirectories;
+    private final ConcurrentHashMap<Path, Set<String>> keysByFile;
+    private final ConcurrentLinkedQueue<String> changedKeys;
+
+    /**
+     * Create a watcher and start its thread.
+     *
+     * @param owner the object the watcher works for; the thread stops once it is collected
+     * @throws UncheckedIOException if the file system does not support watching
+     */
+    public FileWatcher(final Object owner) {
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the watch service", e);
+        }
+        this.watchedDirectories = new ConcurrentHashMap<>();
+        this.keysByFile = new ConcurrentHashMap<>();
+        this.changedKeys = new ConcurrentLinkedQueue<>();
+
+        Thread thread = new Thread(new WatchLoop(this, owner), "file-cache-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Watch the file identified by @key. Keys that are not valid paths, or whose directory cannot
+     * be watched, are ignored.
+     *
+     * @param key the cache key, i.e. the path of the file
+     */
+    public void register(final String key) {
+        Path file;
+        try {
+            file = Paths.get(key).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            return;
+        }
+
+        Path directory = file.getParent();
+        if (directory == null) {
+            return;
+        }
+        if (!watchedDirectories.containsKey(directory)) {
+            try {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(directory, Boolean.TRUE);
+            } catch (IOException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+
+        Set<String> keys = keysByFile.get(file);
+        if (keys == null) {
+            Set<String> newKeys = ConcurrentHashMap.newKeySet();
+            keys = keysByFile.putIfAbsent(file, newKeys);
+            if (keys == null) {
+                keys = newKeys;
+            }
+        }
+        keys.add(key);
+    }
+
+    /**
+     * Return the key of a file that changed since it was registered, or null if there is none.
+     * A key is reported once; it must be registered again to be watched further.
+     *
+     * @return the key of a changed file, or null
+     */
+    public String pollChanged() {
+        return changedKeys.poll();
+    }
+
+    /**
+     * Stop watching.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Pune in coada cheile fisierului modificat. Cheile sunt scoase din evidenta, astfel incat
+     * fisierele ce nu mai sunt incarcate sa nu fie urmarite la nesfarsit.
+     *
+     * @param file Fisierul modificat.
+     */
+    private void fileChanged(final Path file) {
+        Set<String> keys = keysByFile.remove(file);
+        if (keys != null) {
+            changedKeys.addAll(keys);
+        }
+    }
+
+    /**
+     * La pierderea evenimentelor unui director, toate fisierele lui sunt considerate modificate.
+     *
+     * @param directory Directorul afectat.
+     */
+    private void directoryChanged(final Path directory) {
+        for (Path file : keysByFile.keySet()) {
+            if (directory.equals(file.getParent())) {
+                fileChanged(file);
+            }
+        }
+    }
+
+    /**
+     * Bucla firului de urmarire. Nu retine proprietarul decat printr-o referinta slaba.
+     */
+    private static final class WatchLoop implements Runnable {
+        private final FileWatcher watcher;
+        private final WeakReference<Object> ownerReference;
+
+        WatchLoop(final FileWatcher watcher, final Object owner) {
+            this.watcher = watcher;
+            this.ownerReference = new WeakReference<>(owner);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (ownerReference.get() != null) {
+                    WatchKey watchKey = watcher.watchService.poll(POLL_MILLIS,
+                            TimeUnit.MILLISECONDS);
+                    if (watchKey != null) {
+                        processEvents(watchKey);
+                    }
+                }
+                watcher.close();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+        }
+
+        private void processEvents(final WatchKey watchKey) {
+            Path directory = (Path) watchKey.watchable();
+
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    watcher.directoryChanged(directory);
+                } else {
+                    watcher.fileChanged(directory.resolve((Path) event.context()));
+                }
+            }
+
+            if (!watchKey.reset()) {
+                watcher.watchedDirectories.remove(directory);
+                watcher.directoryChanged(directory);
+            }
+        }
+    }
+}
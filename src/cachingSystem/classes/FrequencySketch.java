@@ -0,0 +1,105 @@
+package cachingSystem.classes;
+
+/**
+ * The FrequencySketch estimates how often keys were accessed recently, in constant memory. It is
+ * a count-min sketch with four rows of 4-bit counters packed in longs. Once the number of
+ * recorded accesses reaches the sample size, every counter is halved, so old popularity fades
+ * away and the estimates follow the current workload.
+ *
+ * @param <K> the key type
+ */
+public class FrequencySketch<K> {
+    private static final int ROWS = 4;
+    private static final int COUNTERS_PER_LONG = 16;
+    private static final int INDEX_SHIFT = 4;
+    private static final int OFFSET_SHIFT = 2;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int SAMPLE_FACTOR = 10;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Create a sketch sized for a cache holding @maximumSize entries.
+     *
+     * @param maximumSize the maximum number of entries of the cache
+     */
+    public FrequencySketch(final int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(1, maximumSize - 1)) << 1;
+
+        table = new long[length];
+        counterMask = length * COUNTERS_PER_LONG - 1;
+        sampleSize = (int) Math.min(Integer.MAX_VALUE, (long) SAMPLE_FACTOR * maximumSize);
+    }
+
+    /**
+     * Return the estimated number of recent accesses of a key, between 0 and 15.
+     *
+     * @param key the key
+     * @return the estimated frequency
+     */
+    public int frequency(final K key) {
+        int hash = key.hashCode();
+        int frequency = MAX_FREQUENCY;
+
+        for (int row = 0; row < ROWS; row++) {
+            int counter = counterIndex(hash, row);
+            int count = (int) ((table[counter >>> INDEX_SHIFT] >>> offset(counter))
+                    & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record an access of a key.
+     *
+     * @param key the key
+     */
+    public void increment(final K key) {
+        int hash = key.hashCode();
+        boolean added = false;
+
+        for (int row = 0; row < ROWS; row++) {
+            int counter = counterIndex(hash, row);
+            int index = counter >>> INDEX_SHIFT;
+            int offset = offset(counter);
+
+            if (((table[index] >>> offset) & COUNTER_MASK) != MAX_FREQUENCY) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Injumatateste toti contorii, pentru ca accesele vechi sa conteze din ce in ce mai putin.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counterIndex(final int hash, final int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        mixed ^= mixed >>> Integer.SIZE;
+        return (int) mixed & counterMask;
+    }
+
+    private static int offset(final int counter) {
+        return (counter & (COUNTERS_PER_LONG - 1)) << OFFSET_SHIFT;
+    }
+}
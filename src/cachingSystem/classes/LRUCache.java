@@ -87,6 +87,7 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
     public void put(final K key, final V value) {
         if (lruCache.containsKey(key)) {
             Node<K, V> tempNode = lruCache.get(key);
+            recordReplacement(key, tempNode.getValue(), value);
             tempNode.setValue(value);
             //Daca fisierul este deja cel mai recent accesat va ramane pe pozitia curenta in cache.
             if (tempNode == mostRecentlyUsed) {
@@ -122,7 +123,7 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
 
         /*Daca fisierul nu se afla in cache, acesta va fi adaugat si va deveni cel mai recent
         fisier accesat din cache */
-        Node<K, V> myNode = new Node<K, V>(mostRecentlyUsed, null, key, value);
+        Node<K, V> myNode = createNode(mostRecentlyUsed, key, value);
         if (mostRecentlyUsed != null) {
             mostRecentlyUsed.setNext(myNode);
         }
@@ -132,10 +133,24 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
         mostRecentlyUsed = myNode;
 
         lruCache.put(key, myNode);
+        recordInsertion(key, value);
         this.clearStaleEntries();
         this.cacheListener.onPut(key, value);
     }
 
+    /**
+     * Creeaza nodul unei intrari noi. Subclasele pot intoarce noduri ce retin informatii
+     * suplimentare.
+     *
+     * @param prev  Nodul anterior din lista.
+     * @param key   Adresa fisierului.
+     * @param value Continutul fisierului.
+     * @return Nodul creat.
+     */
+    Node<K, V> createNode(final Node<K, V> prev, final K key, final V value) {
+        return new Node<>(prev, null, key, value);
+    }
+
     /**
      * Dimensiunea cache-ului.
      *
@@ -157,24 +172,33 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
     }
 
     /**
-     * Elimina fisierul cel mai vechi accesat din cache.
+     * Elimina fisierul dorit din cache, refacand legaturile vecinilor din lista.
      *
      * @param key Adresa fisierului ce trebuie eliminat (daca acesta se afla in cache)
      * @return Continutul fisierului eliminat
      */
     @Override
     public V remove(final K key) {
-        if (lruCache.containsKey(key)) {
-            V myValue = lruCache.get(key).getValue();
+        Node<K, V> tempNode = lruCache.remove(key);
+        if (tempNode == null) {
+            return null;
+        }
 
+        if (tempNode == leastRecentlyUsed) {
             leastRecentlyUsed = leastRecentlyUsed.getNext();
             if (leastRecentlyUsed != null) {
                 leastRecentlyUsed.setPrev(null);
             }
-            lruCache.remove(key);
-            return myValue;
+        } else if (tempNode == mostRecentlyUsed) {
+            mostRecentlyUsed = tempNode.getPrev();
+            mostRecentlyUsed.setNext(null);
+        } else {
+            tempNode.getPrev().setNext(tempNode.getNext());
+            tempNode.getNext().setPrev(tempNode.getPrev());
         }
-        return null;
+
+        recordRemoval(key, tempNode.getValue());
+        return tempNode.getValue();
     }
 
     /**
@@ -185,6 +209,12 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
         lruCache.clear();
         leastRecentlyUsed = new Node<>(null, null, null, null);
         mostRecentlyUsed = leastRecentlyUsed;
+        resetWeight();
+    }
+
+    @Override
+    Pair<K, V> peekEldest() {
+        return isEmpty() ? null : leastRecentlyUsed;
     }
 
     /**
@@ -0,0 +1,82 @@
+package cachingSystem.classes;
+
+/**
+ * Doubly linked list of Nodes ordered from the eldest (head) to the youngest (tail) node. Every
+ * operation is O(1); a node may belong to at most one NodeDeque at a time.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class NodeDeque<K, V> {
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size;
+
+    Node<K, V> peekFirst() {
+        return head;
+    }
+
+    Node<K, V> peekLast() {
+        return tail;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void linkLast(final Node<K, V> node) {
+        node.setPrev(tail);
+        node.setNext(null);
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.setNext(node);
+        }
+        tail = node;
+        size++;
+    }
+
+    void unlink(final Node<K, V> node) {
+        Node<K, V> prev = node.getPrev();
+        Node<K, V> next = node.getNext();
+
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.setNext(next);
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.setPrev(prev);
+        }
+        node.setPrev(null);
+        node.setNext(null);
+        size--;
+    }
+
+    Node<K, V> pollFirst() {
+        Node<K, V> first = head;
+        if (first != null) {
+            unlink(first);
+        }
+        return first;
+    }
+
+    void moveToBack(final Node<K, V> node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+}
@@ -2,6 +2,7 @@ package cachingSystem.classes;
 
 import cachingSystem.interfaces.Cache;
 import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Weigher;
 import dataStructures.classes.Pair;
 import observerPattern.interfaces.CacheListener;
 
@@ -15,6 +16,9 @@ import observerPattern.interfaces.CacheListener;
 public abstract class ObservableCache<K, V> implements Cache<K, V> {
     CacheStalePolicy<K, V> stalePolicy;
     CacheListener<K, V> cacheListener;
+    Weigher<K, V> weigher;
+    long maximumWeight;
+    long weightedSize;
 
     /**
      * Set a policy for removing stale elements from the cache.
@@ -35,15 +39,130 @@ public abstract class ObservableCache<K, V> implements Cache<K, V> {
     }
 
     /**
-     * Clear the stale elements from the cache. This method must make use of the stale policy.
+     * Limit the cache by the total weight of its entries. Whenever the total weight exceeds
+     * @maximumWeight, the eldest entries are evicted until it no longer does. The weigher must be
+     * set while the cache is empty.
+     *
+     * @param maximumWeight the maximum total weight
+     * @param weigher       the weigher used for every entry
+     */
+    public void setMaximumWeight(final long maximumWeight, final Weigher<K, V> weigher) {
+        if (!isEmpty()) {
+            throw new IllegalStateException("The weigher must be set on an empty cache");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.weightedSize = 0;
+    }
+
+    /**
+     * Get the total weight of the entries, or 0 if no weigher was set.
+     *
+     * @return the weighted size
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Return the eldest entry, i.e. the next one to be evicted, or null if the cache is empty.
+     * Unlike getEldestEntry, the entry may be the one stored by the cache rather than a copy, so
+     * it must not be modified, and it is only valid until the cache is modified. Caches should
+     * override this when they can return their own entry, so eviction allocates nothing.
+     *
+     * @return the eldest entry
+     */
+    Pair<K, V> peekEldest() {
+        return getEldestEntry();
+    }
+
+    /**
+     * Remove the eldest entry and return it, or return null if the cache is empty.
+     *
+     * @return the removed entry
+     */
+    Pair<K, V> pollEldest() {
+        Pair<K, V> eldest = peekEldest();
+        if (eldest != null) {
+            remove(eldest.getKey());
+        }
+        return eldest;
+    }
+
+    /**
+     * Actualizeaza greutatea totala la adaugarea unei intrari noi.
+     *
+     * @param key   Cheia adaugata.
+     * @param value Valoarea adaugata.
+     */
+    final void recordInsertion(final K key, final V value) {
+        if (weigher != null) {
+            weightedSize += weigh(key, value);
+        }
+    }
+
+    /**
+     * Actualizeaza greutatea totala la suprascrierea valorii unei intrari.
+     *
+     * @param key      Cheia suprascrisa.
+     * @param oldValue Valoarea veche.
+     * @param newValue Valoarea noua.
+     */
+    final void recordReplacement(final K key, final V oldValue, final V newValue) {
+        if (weigher != null) {
+            weightedSize += weigh(key, newValue) - weigh(key, oldValue);
+        }
+    }
+
+    /**
+     * Actualizeaza greutatea totala la eliminarea unei intrari.
+     *
+     * @param key   Cheia eliminata.
+     * @param value Valoarea eliminata.
+     */
+    final void recordRemoval(final K key, final V value) {
+        if (weigher != null) {
+            weightedSize -= weigh(key, value);
+        }
+    }
+
+    final void resetWeight() {
+        weightedSize = 0;
+    }
+
+    private int weigh(final K key, final V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for key: " + key);
+        }
+        return weight;
+    }
+
+    /**
+     * Clear the stale elements from the cache. If a maximum weight was set, the eldest entries
+     * are evicted first until the cache is under its weight budget; then the stale policy is
+     * applied. Every removed entry is reported to the listener as evicted.
      */
     public void clearStaleEntries() {
-        if (getEldestEntry() != null) {
-            Pair<K, V> eldest = getEldestEntry();
-            while (stalePolicy.shouldRemoveEldestEntry(eldest)) {
-                remove(eldest.getKey());
-                eldest = getEldestEntry();
+        if (weigher != null) {
+            while (weightedSize > maximumWeight && !isEmpty()) {
+                evictEldestEntry();
             }
         }
+        if (stalePolicy != null) {
+            Pair<K, V> eldest = peekEldest();
+            while (eldest != null && stalePolicy.shouldRemoveEldestEntry(eldest)) {
+                evictEldestEntry();
+                eldest = peekEldest();
+            }
+        }
+    }
+
+    /**
+     * Elimina cea mai veche intrare pentru a respecta limitele cache-ului si anunta evacuarea.
+     */
+    final void evictEldestEntry() {
+        Pair<K, V> eldest = pollEldest();
+        this.cacheListener.onEvict(eldest.getKey(), eldest.getValue());
     }
 }
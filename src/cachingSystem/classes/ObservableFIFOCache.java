@@ -14,9 +14,10 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final V get(final K key) {
-        if (fifoCache.get(key) != null) {
+        V value = fifoCache.get(key);
+        if (value != null) {
             this.cacheListener.onHit(key);
-            return fifoCache.get(key);
+            return value;
         } else {
             this.cacheListener.onMiss(key);
             return null;
@@ -25,7 +26,12 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final void put(final K key, final V value) {
-        fifoCache.put(key, value);
+        V oldValue = fifoCache.update(key, value);
+        if (oldValue == null) {
+            recordInsertion(key, value);
+        } else {
+            recordReplacement(key, oldValue, value);
+        }
         this.cacheListener.onPut(key, value);
         this.clearStaleEntries();
     }
@@ -42,16 +48,26 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final V remove(final K key) {
-        return fifoCache.remove(key);
+        V value = fifoCache.remove(key);
+        if (value != null) {
+            recordRemoval(key, value);
+        }
+        return value;
     }
 
     @Override
     public final void clearAll() {
         fifoCache.clearAll();
+        resetWeight();
     }
 
     @Override
     public final Pair<K, V> getEldestEntry() {
         return fifoCache.getEldestEntry();
     }
+
+    @Override
+    final Pair<K, V> peekEldest() {
+        return fifoCache.peekEldest();
+    }
 }
@@ -0,0 +1,635 @@
+package cachingSystem.classes;
+
+import cachingSystem.interfaces.Weigher;
+import dataStructures.classes.Pair;
+
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The OffHeapCache stores its values outside of the Java heap, in a fixed set of direct memory
+ * slabs, and limits its size by the total number of bytes stored rather than by the number of
+ * entries. Only the keys and the location of every value (slab, offset and length) live on the
+ * heap. Free memory is indexed by size, so every value is placed in the smallest free region
+ * that fits it. When the free memory is too small for a value, the eldest entries are evicted;
+ * when it is large enough but fragmented, the entries of the cheapest contiguous range of a single
+ * slab are evicted instead, so a single value never drains the whole eviction order.
+ *
+ * <p>Values read from the cache are read-only views of the off-heap memory rather than copies.
+ * The memory of a removed entry is only reused once the views returned for it were garbage
+ * collected. Buffers derived from a view, e.g. with duplicate or slice, do not keep it valid, so
+ * the view itself must stay reachable while they are used. Use transferTo to write a value to a
+ * channel without creating a view.
+ *
+ * @param <K> the key type
+ */
+public class OffHeapCache<K> extends ObservableCache<K, ByteBuffer> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long VIEW_COLLECTION_WAIT_MILLIS = 50;
+
+    /* Regiunile libere, ordonate dupa lungime, apoi dupa pozitie. */
+    private static final Comparator<Location<?>> BY_LENGTH = new Comparator<Location<?>>() {
+        @Override
+        public int compare(final Location<?> first, final Location<?> second) {
+            if (first.length != second.length) {
+                return Integer.compare(first.length, second.length);
+            }
+            if (first.slab != second.slab) {
+                return Integer.compare(first.slab, second.slab);
+            }
+            return Integer.compare(first.offset, second.offset);
+        }
+    };
+
+    private final ArrayList<ByteBuffer> slabs;
+    private final ArrayList<TreeMap<Integer, Integer>> freeRegions;
+    private final ArrayList<TreeMap<Integer, Location<K>>> usedRegions;
+    private final TreeSet<Location<?>> freeRegionsByLength;
+    private final long[] freeBytesPerSlab;
+    private final LinkedHashMap<K, Location<K>> entries;
+    private final HashSet<ViewReference<K>> trackedViews;
+    private final ReferenceQueue<ByteBuffer> collectedViews;
+    private final int slabSize;
+    private final long byteBudget;
+    private long usedBytes;
+    private long freeBytes;
+    private long pinnedBytes;
+
+    /**
+     * Create an off-heap cache.
+     *
+     * @param byteBudget  the maximum number of value bytes stored by the cache
+     * @param slabSize    the size of a slab; values larger than a slab are never stored
+     * @param accessOrder true to evict the least recently used entries, false to evict the
+     *                    entries in insertion order
+     */
+    public OffHeapCache(final long byteBudget, final int slabSize, final boolean accessOrder) {
+        if (byteBudget <= 0 || slabSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid off-heap budget: " + byteBudget + " / " + slabSize);
+        }
+
+        int slabCount = (int) ((byteBudget + slabSize - 1) / slabSize);
+
+        this.slabs = new ArrayList<>(slabCount);
+        this.freeRegions = new ArrayList<>(slabCount);
+        this.usedRegions = new ArrayList<>(slabCount);
+        this.freeRegionsByLength = new TreeSet<>(BY_LENGTH);
+        this.freeBytesPerSlab = new long[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            int size = (int) Math.min(slabSize, byteBudget - (long) i * slabSize);
+            slabs.add(ByteBuffer.allocateDirect(size));
+            freeRegions.add(new TreeMap<Integer, Integer>());
+            usedRegions.add(new TreeMap<Integer, Location<K>>());
+            addFreeRegion(i, 0, size);
+        }
+
+        this.entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, accessOrder);
+        this.trackedViews = new HashSet<>();
+        this.collectedViews = new ReferenceQueue<>();
+        this.slabSize = slabSize;
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * Get the number of value bytes currently stored.
+     *
+     * @return the used bytes
+     */
+    public final long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Get the maximum number of value bytes the cache can store.
+     *
+     * @return the byte budget
+     */
+    public final long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * The OffHeapCache is always limited by the number of bytes it stores, so it cannot be given a
+     * maximum weight.
+     *
+     * @param maximumWeight the maximum total weight
+     * @param weigher       the weigher used for every entry
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setMaximumWeight(final long maximumWeight,
+                                 final Weigher<K, ByteBuffer> weigher) {
+        throw new UnsupportedOperationException("The off-heap cache is limited by its byte budget");
+    }
+
+    /**
+     * The weighted size of the OffHeapCache is the number of bytes it stores.
+     *
+     * @return the used bytes
+     */
+    @Override
+    public long getWeightedSize() {
+        return usedBytes;
+    }
+
+    /**
+     * Return a read-only view of the value associated with a key. The memory of the value is not
+     * reused while the view is reachable, even if the entry is removed meanwhile.
+     *
+     * @param key the key to lookup
+     * @return a read-only view of the value, or null
+     */
+    @Override
+    public ByteBuffer get(final K key) {
+        Location<K> location = entries.get(key);
+
+        if (location == null) {
+            this.cacheListener.onMiss(key);
+            return null;
+        }
+
+        ByteBuffer view = trackedView(location);
+
+        this.cacheListener.onHit(key);
+        return view;
+    }
+
+    /**
+     * Write the value associated with a key to a channel, straight from off-heap memory.
+     *
+     * @param key    the key
+     * @param target the channel
+     * @return the number of bytes written, or -1 if the key is not stored in the cache
+     * @throws IOException if writing to the channel fails
+     */
+    public long transferTo(final K key, final WritableByteChannel target) throws IOException {
+        Location<K> location = entries.get(key);
+
+        if (location == null) {
+            this.cacheListener.onMiss(key);
+            return -1;
+        }
+
+        ByteBuffer source = view(location);
+        long written = 0;
+        while (source.hasRemaining()) {
+            written += target.write(source);
+        }
+
+        this.cacheListener.onHit(key);
+        return written;
+    }
+
+    /**
+     * Copy a value, from its position to its limit, to off-heap memory. The eldest entries are
+     * evicted until the value fits. Values larger than a slab are not stored; if the key was
+     * stored, its previous value is then dropped and reported as evicted, so it is not served
+     * stale.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    @Override
+    public void put(final K key, final ByteBuffer value) {
+        expungeCollectedViews();
+
+        int length = value.remaining();
+        if (length > slabSize) {
+            discard(key);
+            return;
+        }
+
+        Location<K> location = allocateEvicting(key, length);
+        if (location == null && pinnedBytes > 0) {
+            collectViews();
+            location = allocateEvicting(key, length);
+        }
+        if (location == null) {
+            discard(key);
+            return;
+        }
+
+        ByteBuffer target = slabs.get(location.slab).duplicate();
+        target.position(location.offset);
+        target.put(value.duplicate());
+
+        Location<K> previous = entries.put(key, location);
+        if (previous != null) {
+            release(previous);
+        }
+        if (length > 0) {
+            usedRegions.get(location.slab).put(location.offset, location);
+        }
+        usedBytes += length;
+
+        this.clearStaleEntries();
+        this.cacheListener.onPut(key, value);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public ByteBuffer remove(final K key) {
+        Location<K> location = entries.remove(key);
+
+        if (location == null) {
+            return null;
+        }
+
+        ByteBuffer view = trackedView(location);
+        release(location);
+        return view;
+    }
+
+    @Override
+    public void clearAll() {
+        for (Location<K> location : entries.values()) {
+            release(location);
+        }
+        entries.clear();
+        expungeCollectedViews();
+    }
+
+    @Override
+    public Pair<K, ByteBuffer> getEldestEntry() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<K, Location<K>> eldest = entries.entrySet().iterator().next();
+        return new Pair<>(eldest.getKey(), trackedView(eldest.getValue()));
+    }
+
+    /**
+     * Return the eldest entry with an untracked view of its off-heap value. Unlike the views
+     * returned by get, it is only valid until the cache is modified, since the memory may then be
+     * reused.
+     *
+     * @return the eldest entry, or null if the cache is empty
+     */
+    @Override
+    Pair<K, ByteBuffer> peekEldest() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<K, Location<K>> eldest = entries.entrySet().iterator().next();
+        return new Pair<>(eldest.getKey(), view(eldest.getValue()));
+    }
+
+    /**
+     * Remove the eldest entry without creating a view of its value. The value of the returned
+     * entry is null.
+     *
+     * @return the removed entry, with a null value
+     */
+    @Override
+    Pair<K, ByteBuffer> pollEldest() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        Iterator<Map.Entry<K, Location<K>>> iterator = entries.entrySet().iterator();
+        Map.Entry<K, Location<K>> eldest = iterator.next();
+        K key = eldest.getKey();
+
+        iterator.remove();
+        release(eldest.getValue());
+        return new Pair<>(key, null);
+    }
+
+    /**
+     * Elimina valoarea anterioara a unei chei a carei valoare noua nu poate fi stocata si anunta
+     * eliminarea.
+     *
+     * @param key Cheia.
+     */
+    private void discard(final K key) {
+        Location<K> previous = entries.remove(key);
+        if (previous != null) {
+            release(previous);
+            this.cacheListener.onEvict(key, null);
+        }
+    }
+
+    private ByteBuffer view(final Location<K> location) {
+        ByteBuffer view = slabs.get(location.slab).asReadOnlyBuffer();
+        view.limit(location.offset + location.length);
+        view.position(location.offset);
+        return view.slice();
+    }
+
+    /**
+     * Creeaza o vedere a unei valori si o urmareste: regiunea valorii nu este refolosita cat timp
+     * vederea este accesibila.
+     *
+     * @param location Locatia valorii.
+     * @return Vederea, read-only.
+     */
+    private ByteBuffer trackedView(final Location<K> location) {
+        ByteBuffer view = view(location);
+
+        if (location.length > 0) {
+            location.readers++;
+            trackedViews.add(new ViewReference<>(view, location, collectedViews));
+        }
+        return view;
+    }
+
+    /**
+     * Elibereaza regiunile eliminate din cache ale caror vederi au fost colectate de GC.
+     */
+    private void expungeCollectedViews() {
+        Reference<? extends ByteBuffer> reference = collectedViews.poll();
+        while (reference != null) {
+            onViewCollected(reference);
+            reference = collectedViews.poll();
+        }
+    }
+
+    /**
+     * Ultima solutie cand valoarea nu incape nici dupa golirea cache-ului, din cauza regiunilor
+     * inca citite: cere o colectare si asteapta, cel mult VIEW_COLLECTION_WAIT_MILLIS dupa ultima
+     * vedere anuntata, ca vederile inaccesibile sa fie colectate, la fel cum procedeaza JDK-ul cand
+     * memoria directa este epuizata.
+     */
+    private void collectViews() {
+        System.gc();
+        try {
+            while (pinnedBytes > 0) {
+                Reference<? extends ByteBuffer> reference =
+                        collectedViews.remove(VIEW_COLLECTION_WAIT_MILLIS);
+                if (reference == null) {
+                    break;
+                }
+                onViewCollected(reference);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void onViewCollected(final Reference<? extends ByteBuffer> reference) {
+        @SuppressWarnings("unchecked")
+        ViewReference<K> collected = (ViewReference<K>) reference;
+        trackedViews.remove(collected);
+
+        Location<K> location = collected.location;
+        location.readers--;
+        if (location.readers == 0 && location.released) {
+            pinnedBytes -= location.length;
+            freeRegion(location);
+        }
+    }
+
+    /**
+     * Aloca o regiune pentru @length octeti, eliminand intrari pana cand valoarea incape sau
+     * cache-ul se goleste.
+     *
+     * @param key    Cheia valorii.
+     * @param length Numarul de octeti necesari.
+     * @return Locatia alocata, sau null daca valoarea nu incape nici in cache-ul gol.
+     */
+    private Location<K> allocateEvicting(final K key, final int length) {
+        Location<K> location = allocate(key, length);
+        while (location == null && !entries.isEmpty()) {
+            if (freeBytes < length || !evictContiguousRange(length)) {
+                evictEldestEntry();
+            }
+            location = allocate(key, length);
+        }
+        return location;
+    }
+
+
+    /**
+     * Cauta cea mai mica regiune libera suficient de mare (best-fit), in timp logaritmic.
+     *
+     * @param key    Cheia valorii.
+     * @param length Numarul de octeti necesari.
+     * @return Locatia alocata, sau null daca nicio regiune libera nu este suficient de mare.
+     */
+    private Location<K> allocate(final K key, final int length) {
+        if (length == 0) {
+            return new Location<>(key, 0, 0, 0);
+        }
+
+        Location<?> region = freeRegionsByLength.ceiling(new Location<>(null, 0, 0, length));
+        if (region == null) {
+            return null;
+        }
+
+        removeFreeRegion(region.slab, region.offset, region.length);
+        if (region.length > length) {
+            addFreeRegion(region.slab, region.offset + length, region.length - length);
+        }
+        return new Location<>(key, region.slab, region.offset, length);
+    }
+
+    /**
+     * Memoria libera ajunge pentru @length octeti, dar este fragmentata: in slab-ul cu cea mai
+     * multa memorie libera, elimina intrarile din intervalul contiguu de cel putin @length octeti
+     * ce contine cei mai putini octeti ocupati, astfel incat regiunile eliberate sa se uneasca.
+     * Intervalele cu valori ce au vederi accesibile sunt evitate, caci nu ar fi eliberate.
+     *
+     * @param length Numarul de octeti necesari.
+     * @return true daca s-a eliberat un interval, false daca niciun slab nu este destul de mare.
+     */
+    private boolean evictContiguousRange(final int length) {
+        int slab = -1;
+        for (int i = 0; i < slabs.size(); i++) {
+            if (slabs.get(i).capacity() >= length
+                    && (slab < 0 || freeBytesPerSlab[i] > freeBytesPerSlab[slab])) {
+                slab = i;
+            }
+        }
+        if (slab < 0) {
+            return false;
+        }
+
+        ArrayList<Location<K>> regions = regionsOf(slab);
+        int bestFirst = -1;
+        int bestLast = -1;
+        long bestUsedBytes = Long.MAX_VALUE;
+        int first = 0;
+        long spanBytes = 0;
+        long spanUsedBytes = 0;
+
+        for (int last = 0; last < regions.size(); last++) {
+            Location<K> region = regions.get(last);
+            if (region.readers > 0) {
+                first = last + 1;
+                spanBytes = 0;
+                spanUsedBytes = 0;
+                continue;
+            }
+
+            spanBytes += region.length;
+            if (region.key != null) {
+                spanUsedBytes += region.length;
+            }
+
+            while (spanBytes - regions.get(first).length >= length) {
+                Location<K> dropped = regions.get(first++);
+                spanBytes -= dropped.length;
+                if (dropped.key != null) {
+                    spanUsedBytes -= dropped.length;
+                }
+            }
+            if (spanBytes >= length && spanUsedBytes < bestUsedBytes) {
+                bestFirst = first;
+                bestLast = last;
+                bestUsedBytes = spanUsedBytes;
+            }
+        }
+        if (bestFirst < 0) {
+            return false;
+        }
+
+        for (int i = bestFirst; i <= bestLast; i++) {
+            Location<K> region = regions.get(i);
+            if (region.key != null) {
+                entries.remove(region.key);
+                release(region);
+                this.cacheListener.onEvict(region.key, null);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construieste lista regiunilor unui slab, libere (fara cheie) si ocupate, in ordinea
+     * pozitiei lor.
+     *
+     * @param slab Indicele slab-ului.
+     * @return Regiunile slab-ului.
+     */
+    private ArrayList<Location<K>> regionsOf(final int slab) {
+        TreeMap<Integer, Integer> free = freeRegions.get(slab);
+        TreeMap<Integer, Location<K>> used = usedRegions.get(slab);
+        ArrayList<Location<K>> regions = new ArrayList<>(free.size() + used.size());
+        int capacity = slabs.get(slab).capacity();
+        int offset = 0;
+
+        while (offset < capacity) {
+            Integer freeLength = free.get(offset);
+            Location<K> region = freeLength == null
+                    ? used.get(offset) : new Location<K>(null, slab, offset, freeLength);
+            regions.add(region);
+            offset += region.length;
+        }
+        return regions;
+    }
+
+    /**
+     * Elibereaza regiunea unei intrari eliminate din cache. Daca valoarea mai are vederi
+     * accesibile, regiunea ramane ocupata pana cand acestea sunt colectate.
+     *
+     * @param location Locatia eliberata.
+     */
+    private void release(final Location<K> location) {
+        usedBytes -= location.length;
+        if (location.readers > 0) {
+            location.released = true;
+            pinnedBytes += location.length;
+        } else if (location.length > 0) {
+            freeRegion(location);
+        }
+    }
+
+    /**
+     * Elibereaza regiunea unei valori si o uneste cu regiunile libere vecine.
+     *
+     * @param location Locatia eliberata.
+     */
+    private void freeRegion(final Location<K> location) {
+        TreeMap<Integer, Integer> free = freeRegions.get(location.slab);
+        int offset = location.offset;
+        int length = location.length;
+        usedRegions.get(location.slab).remove(offset);
+
+        Map.Entry<Integer, Integer> before = free.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            removeFreeRegion(location.slab, before.getKey(), before.getValue());
+            offset = before.getKey();
+            length += before.getValue();
+        }
+
+        Integer after = free.get(offset + length);
+        if (after != null) {
+            removeFreeRegion(location.slab, offset + length, after);
+            length += after;
+        }
+
+        addFreeRegion(location.slab, offset, length);
+    }
+
+    private void addFreeRegion(final int slab, final int offset, final int length) {
+        freeRegions.get(slab).put(offset, length);
+        freeRegionsByLength.add(new Location<>(null, slab, offset, length));
+        freeBytesPerSlab[slab] += length;
+        freeBytes += length;
+    }
+
+    private void removeFreeRegion(final int slab, final int offset, final int length) {
+        freeRegions.get(slab).remove(offset);
+        freeRegionsByLength.remove(new Location<>(null, slab, offset, length));
+        freeBytesPerSlab[slab] -= length;
+        freeBytes -= length;
+    }
+
+    /**
+     * O regiune a memoriei off-heap: valoarea unei chei, sau o regiune libera (fara cheie).
+     * Regiunea unei valori eliminate ramane ocupata cat timp are vederi accesibile.
+     */
+    private static final class Location<K> {
+        private final K key;
+        private final int slab;
+        private final int offset;
+        private final int length;
+        private int readers;
+        private boolean released;
+
+        Location(final K key, final int slab, final int offset, final int length) {
+            this.key = key;
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Referinta catre o vedere returnata, anuntata dupa ce vederea a fost colectata.
+     */
+    private static final class ViewReference<K> extends PhantomReference<ByteBuffer> {
+        private final Location<K> location;
+
+        ViewReference(final ByteBuffer view, final Location<K> location,
+                      final ReferenceQueue<ByteBuffer> queue) {
+            super(view, queue);
+            this.location = location;
+        }
+    }
+}
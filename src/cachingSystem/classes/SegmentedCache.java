@@ -0,0 +1,249 @@
+package cachingSystem.classes;
+
+import cachingSystem.interfaces.Weigher;
+import dataStructures.classes.Pair;
+import observerPattern.interfaces.CacheListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The SegmentedCache is a thread-safe cache that partitions its keys across a fixed number of
+ * segments. Every segment is an ordinary ObservableCache guarded by its own lock, with its own
+ * eviction order and stale policy, so operations on keys that belong to different segments can
+ * proceed in parallel.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SegmentedCache<K, V> extends ObservableCache<K, V> {
+    private static final int HASH_SPREAD_SHIFT = 16;
+
+    private final ArrayList<ObservableCache<K, V>> segments;
+    private final ArrayList<ReentrantLock> locks;
+    private final int segmentMask;
+
+    /**
+     * Create a cache over the given segments. The number of segments must be a power of two.
+     *
+     * @param segments the segments, each one responsible for its own share of the keys
+     */
+    public SegmentedCache(final List<? extends ObservableCache<K, V>> segments) {
+        if (segments.isEmpty() || Integer.bitCount(segments.size()) != 1) {
+            throw new IllegalArgumentException(
+                    "Segment count must be a power of two: " + segments.size());
+        }
+
+        this.segments = new ArrayList<>(segments);
+        this.locks = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            locks.add(new ReentrantLock());
+        }
+        this.segmentMask = segments.size() - 1;
+    }
+
+    /**
+     * Get the number of segments of the cache.
+     *
+     * @return the segment count
+     */
+    public final int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Set the listener for the cache. The listener is shared by all the segments, so it must be
+     * able to handle events coming from several threads at once.
+     *
+     * @param cacheListener the listener
+     */
+    @Override
+    public void setCacheListener(final CacheListener<K, V> cacheListener) {
+        super.setCacheListener(cacheListener);
+        for (ObservableCache<K, V> segment : segments) {
+            segment.setCacheListener(cacheListener);
+        }
+    }
+
+    /**
+     * Limit every segment to an equal share of @maximumWeight.
+     *
+     * @param maximumWeight the maximum total weight of the cache
+     * @param weigher       the weigher used for every entry
+     */
+    @Override
+    public void setMaximumWeight(final long maximumWeight, final Weigher<K, V> weigher) {
+        if (!isEmpty()) {
+            throw new IllegalStateException("The weigher must be set on an empty cache");
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            long share = maximumWeight / segments.size()
+                    + (i < maximumWeight % segments.size() ? 1 : 0);
+            segments.get(i).setMaximumWeight(share, weigher);
+        }
+    }
+
+    @Override
+    public final long getWeightedSize() {
+        long weight = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                weight += segments.get(i).getWeightedSize();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return weight;
+    }
+
+    @Override
+    public final V get(final K key) {
+        int index = segmentFor(key);
+        ReentrantLock lock = locks.get(index);
+
+        lock.lock();
+        try {
+            return segments.get(index).get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        int index = segmentFor(key);
+        ReentrantLock lock = locks.get(index);
+
+        lock.lock();
+        try {
+            segments.get(index).put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public final int size() {
+        int size = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                size += segments.get(i).size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        int index = segmentFor(key);
+        ReentrantLock lock = locks.get(index);
+
+        lock.lock();
+        try {
+            return segments.get(index).remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public final void clearAll() {
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                segments.get(i).clearAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Clear the stale elements of every segment, using the stale policy of each segment.
+     */
+    @Override
+    public void clearStaleEntries() {
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                if (!segments.get(i).isEmpty()) {
+                    segments.get(i).clearStaleEntries();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The segments do not share an eviction order, so this returns the eldest entry of the first
+     * segment that is not empty.
+     *
+     * @return the eldest entry of the first non-empty segment, or null if the cache is empty
+     */
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                Pair<K, V> eldest = segments.get(i).getEldestEntry();
+                if (eldest != null) {
+                    return eldest;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    final Pair<K, V> peekEldest() {
+        for (int i = 0; i < segments.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+
+            lock.lock();
+            try {
+                Pair<K, V> eldest = segments.get(i).peekEldest();
+                if (eldest != null) {
+                    return eldest;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selecteaza segmentul responsabil de o cheie. Bitii superiori ai hash-ului sunt amestecati
+     * cu cei inferiori, deoarece doar acestia din urma aleg segmentul.
+     *
+     * @param key Cheia cautata.
+     * @return Indexul segmentului.
+     */
+    private int segmentFor(final K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> HASH_SPREAD_SHIFT)) & segmentMask;
+    }
+}
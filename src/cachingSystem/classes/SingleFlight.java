@@ -0,0 +1,111 @@
+package cachingSystem.classes;
+
+import cachingSystem.interfaces.CacheLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The SingleFlight class makes sure that at most one load is in progress for a key. Callers that
+ * ask for a key while it is being loaded wait for the load in progress instead of starting their
+ * own.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> pendingLoads =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Load a key on the calling thread, or wait for the load already in progress for it.
+     *
+     * @param key    the key to load
+     * @param loader the loader, called at most once per flight
+     * @return the loaded value
+     * @throws UncheckedIOException if the loader failed with an IOException
+     */
+    public V load(final K key, final CacheLoader<K, V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = pendingLoads.putIfAbsent(key, load);
+
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        complete(key, loader, load);
+        return await(load);
+    }
+
+    /**
+     * Load a key on the given executor, or join the load already in progress for it.
+     *
+     * @param key      the key to load
+     * @param loader   the loader, called at most once per flight
+     * @param executor the executor that runs the loader
+     * @return a future completed with the loaded value, or with the load failure
+     */
+    public CompletableFuture<V> loadAsync(final K key, final CacheLoader<K, V> loader,
+                                          final Executor executor) {
+        final CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = pendingLoads.putIfAbsent(key, load);
+
+        if (inFlight != null) {
+            return inFlight.copy();
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    complete(key, loader, load);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingLoads.remove(key, load);
+            load.completeExceptionally(e);
+        }
+        return load.copy();
+    }
+
+    /**
+     * Ruleaza loader-ul si finalizeaza incarcarea inregistrata pentru cheie.
+     *
+     * @param key    Cheia incarcata.
+     * @param loader Loader-ul.
+     * @param load   Incarcarea inregistrata pentru aceasta cheie.
+     */
+    private void complete(final K key, final CacheLoader<K, V> loader,
+                          final CompletableFuture<V> load) {
+        try {
+            V value = loader.load(key);
+            if (value == null) {
+                throw new IllegalStateException("Loader returned no value for: " + key);
+            }
+            load.complete(value);
+        } catch (IOException e) {
+            load.completeExceptionally(new UncheckedIOException("Could not load: " + key, e));
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+        } finally {
+            pendingLoads.remove(key, load);
+        }
+    }
+
+    private static <V> V await(final CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,54 +1,153 @@
 package cachingSystem.classes;
 
-import cachingSystem.interfaces.CacheStalePolicy;
-import dataStructures.classes.Pair;
+import cachingSystem.interfaces.CacheLoader;
+import cachingSystem.interfaces.Ticker;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.sql.Timestamp;
-import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The TimeAwareCache offers the same functionality as the LRUCache, but also stores a timestamp for
  * each element. The timestamp is updated after each get / put operation for a key. This
- * functionality allows for time based cache stale policies (e.g. removing entries that are older
- * than 1 second).
+ * functionality allows for time based expiration (e.g. removing entries that were not accessed
+ * for 1 second).
+ *
+ * <p>Every entry has its own time to live, which defaults to the one set by setExpirePolicy. The
+ * deadlines are kept in a hierarchical timer wheel, so the expired entries are found without
+ * scanning the cache, and time is read from a monotonic Ticker.
+ *
+ * <p>Expired entries are removed while the cache is used. A background clean up can also be
+ * scheduled, so that an idle cache releases them too; while it runs, every operation of the cache
+ * expires only a few entries, and the clean up takes care of the rest.
+ *
+ * <p>Entries can also be refreshed ahead of their expiration: an entry read once a given fraction
+ * of its time to live has passed since it was written is reloaded in the background, while its
+ * current value keeps being served.
  */
 public class TimeAwareCache<K, V> extends LRUCache<K, V> {
-    private HashMap<K, Long> tlruCache = new HashMap<>();
+    private static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    private static final int FOREGROUND_EXPIRATIONS = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Ticker ticker = SYSTEM_TICKER;
+    private int maxForegroundExpirations = Integer.MAX_VALUE;
+    private ScheduledFuture<?> cleanUpTask;
+    private long defaultTimeToLive = TimedNode.NO_EXPIRATION;
+    private double refreshFraction;
+    private CacheLoader<K, V> refreshLoader;
+    private Executor refreshExecutor;
+    private TimerWheel<K, V> wheel = new TimerWheel<>(ticker.read());
+    private final TimerWheel.ExpirationHandler<K, V> expirationHandler =
+            new TimerWheel.ExpirationHandler<K, V>() {
+                @Override
+                public void expire(final TimedNode<K, V> node) {
+                    if (getLruCache().get(node.getKey()) == node) {
+                        expireEntry(node.getKey());
+                    }
+                }
+            };
 
     /**
-     * Functie ce returneaza cotinutul fisierului dorit. Daca acest fisier exista in cache, i se va
-     * actualiza timestamp-ul si se va apela functia get din LRUCache.
+     * Functie ce returneaza cotinutul fisierului dorit. Daca acest fisier exista in cache si nu a
+     * expirat, i se va actualiza timestamp-ul si se va apela functia get din LRUCache.
      *
      * @param key Adresa fisierului pe care dorim sa il cautam.
      * @return Continutul fisierului dorit.
      */
     @Override
     public V get(final K key) {
-        if (!isEmpty()) {
-            this.clearStaleEntries();
-        }
-        if (this.getLruCache().containsKey(key)) {
-            long timestamp = System.currentTimeMillis();
-            tlruCache.put(key, timestamp);
+        lock.lock();
+        try {
+            long now = ticker.read();
+            wheel.advance(now, expirationHandler, maxForegroundExpirations);
+
+            TimedNode<K, V> node = (TimedNode<K, V>) this.getLruCache().get(key);
+            if (node != null) {
+                if (node.isExpired(now)) {
+                    expireEntry(key);
+                } else {
+                    touch(node, now);
+                    if (shouldRefresh(node, now)) {
+                        refresh(node);
+                    }
+                }
+            }
+            return super.get(key);
+        } finally {
+            lock.unlock();
         }
-        return super.get(key);
     }
 
     /**
-     * Functie ce va adauga/suprascrie continutul unui fisier dorit si va actualiza timestamp-ul
-     * acelui fisier in cazul in care este sau nu existent in cache.
+     * Functie ce va adauga/suprascrie continutul unui fisier dorit, cu durata de viata implicita.
      *
      * @param key   Adresa fisierului pe care dorim sa il adaugam.
      * @param value Continutul fisierului.
      */
     @Override
     public void put(final K key, final V value) {
-        if (!tlruCache.containsKey(key)) {
-            tlruCache.put(key, System.currentTimeMillis());
-            super.put(key, value);
-        } else {
+        put(key, value, defaultTimeToLive);
+    }
+
+    /**
+     * Store an entry that expires if it is not accessed for @millisToExpire milliseconds,
+     * regardless of the expire policy of the cache.
+     *
+     * @param key            the key
+     * @param value          the value
+     * @param millisToExpire the time to live of the entry, in milliseconds
+     */
+    public void putWithExpiration(final K key, final V value, final long millisToExpire) {
+        if (millisToExpire < 0) {
+            throw new IllegalArgumentException("Invalid expiration time: " + millisToExpire);
+        }
+        put(key, value, TimeUnit.MILLISECONDS.toNanos(millisToExpire));
+    }
+
+    /**
+     * Adauga/suprascrie o intrare. O intrare existenta este reprogramata inainte de put, pentru
+     * ca evacuarea din put sa nu o elimine; o intrare noua este programata dupa put.
+     *
+     * @param key        Adresa fisierului.
+     * @param value      Continutul fisierului.
+     * @param timeToLive Durata de viata, in nanosecunde, sau NO_EXPIRATION.
+     */
+    private void put(final K key, final V value, final long timeToLive) {
+        lock.lock();
+        try {
+            long now = ticker.read();
+            TimedNode<K, V> node = (TimedNode<K, V>) this.getLruCache().get(key);
+
+            if (node != null) {
+                node.setTimeToLive(timeToLive);
+                node.setWriteTime(now);
+                touch(node, now);
+                super.put(key, value);
+                return;
+            }
+
             super.put(key, value);
-            tlruCache.put(key, System.currentTimeMillis());
+            node = (TimedNode<K, V>) this.getLruCache().get(key);
+            if (node != null) {
+                node.setTimeToLive(timeToLive);
+                node.setWriteTime(now);
+                touch(node, now);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -60,8 +159,117 @@ public class TimeAwareCache<K, V> extends LRUCache<K, V> {
      */
     @Override
     public V remove(final K key) {
-        tlruCache.remove(key);
-        return super.remove(key);
+        lock.lock();
+        try {
+            TimedNode<K, V> node = (TimedNode<K, V>) this.getLruCache().get(key);
+            if (node != null) {
+                wheel.deschedule(node);
+            }
+            return super.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        lock.lock();
+        try {
+            wheel.clear();
+            super.clearAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getWeightedSize() {
+        lock.lock();
+        try {
+            return super.getWeightedSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the expired entries, then apply the weight limit and the stale policy, if any. While
+     * a background clean up is scheduled, only a few expired entries are removed.
+     */
+    @Override
+    public void clearStaleEntries() {
+        lock.lock();
+        try {
+            wheel.advance(ticker.read(), expirationHandler, maxForegroundExpirations);
+            super.clearStaleEntries();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove at most @maxEntries expired entries. The entries left over are removed by the next
+     * calls, once the timer wheel advances.
+     *
+     * @param maxEntries the maximum number of entries to remove
+     * @return the number of removed entries
+     */
+    public int cleanUp(final int maxEntries) {
+        lock.lock();
+        try {
+            return wheel.advance(ticker.read(), expirationHandler, maxEntries);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the expired entries in the background, every @periodMillis milliseconds and at most
+     * @maxEntriesPerRun at a time. The task does not keep the cache alive: it stops by itself once
+     * the cache is no longer used.
+     *
+     * @param scheduler        the executor that runs the clean up
+     * @param periodMillis     the time between two runs, in milliseconds
+     * @param maxEntriesPerRun the maximum number of entries removed by a run
+     */
+    public void scheduleCleanUp(final ScheduledExecutorService scheduler, final long periodMillis,
+                                final int maxEntriesPerRun) {
+        if (periodMillis <= 0 || maxEntriesPerRun <= 0) {
+            throw new IllegalArgumentException("Invalid clean up period or budget");
+        }
+
+        lock.lock();
+        try {
+            cancelCleanUp();
+            CleanUpTask<K, V> task = new CleanUpTask<>(this, maxEntriesPerRun);
+            task.future = scheduler.scheduleWithFixedDelay(task, periodMillis, periodMillis,
+                    TimeUnit.MILLISECONDS);
+            cleanUpTask = task.future;
+            maxForegroundExpirations = FOREGROUND_EXPIRATIONS;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the background clean up, if one is scheduled.
+     */
+    public void cancelCleanUp() {
+        lock.lock();
+        try {
+            if (cleanUpTask != null) {
+                cleanUpTask.cancel(false);
+                cleanUpTask = null;
+            }
+            maxForegroundExpirations = Integer.MAX_VALUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    Node<K, V> createNode(final Node<K, V> prev, final K key, final V value) {
+        return new TimedNode<>(prev, null, key, value);
     }
 
     /**
@@ -71,27 +279,183 @@ public class TimeAwareCache<K, V> extends LRUCache<K, V> {
      * @return the timestamp, or null
      */
     public Timestamp getTimestampOfKey(final K key) {
-        return new Timestamp(tlruCache.get(key));
+        lock.lock();
+        try {
+            TimedNode<K, V> node = (TimedNode<K, V>) this.getLruCache().get(key);
+            if (node == null) {
+                return null;
+            }
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(ticker.read() - node.getAccessTime());
+            return new Timestamp(System.currentTimeMillis() - elapsed);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Set a cache stale policy that should remove all elements older than @millisToExpire
-     * milliseconds. This is a convenience method for setting a time based policy for the cache.
+     * Make the entries expire if they are not accessed for @millisToExpire milliseconds. The
+     * policy applies to the entries stored afterwards without an explicit expiration time.
      *
      * @param millisToExpire the expiration time, in milliseconds
      */
     public void setExpirePolicy(final long millisToExpire) {
-        this.setStalePolicy(new CacheStalePolicy<K, V>() {
-            @Override
-            public boolean shouldRemoveEldestEntry(final Pair<K, V> entry) {
-                long currentts = System.currentTimeMillis();
-                if (isEmpty()) {
-                    return false;
-                } else {
-                    return (currentts - getTimestampOfKey(entry.getKey()).getTime())
-                            > millisToExpire;
+        if (millisToExpire < 0) {
+            throw new IllegalArgumentException("Invalid expiration time: " + millisToExpire);
+        }
+        this.defaultTimeToLive = TimeUnit.MILLISECONDS.toNanos(millisToExpire);
+    }
+
+    /**
+     * Refresh the entries that are read once @fraction of their time to live has passed since
+     * they were written. The new value is loaded by @loader on @executor; until it is stored, the
+     * current value keeps being served. A refresh that fails is dropped, and the entry expires as
+     * usual unless a later read refreshes it.
+     *
+     * @param fraction the part of the time to live after which entries are refreshed, in (0, 1]
+     * @param loader   the loader of the new values
+     * @param executor the executor that runs the loads
+     */
+    public void setRefreshAfterWrite(final double fraction, final CacheLoader<K, V> loader,
+                                     final Executor executor) {
+        if (!(fraction > 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Invalid refresh fraction: " + fraction);
+        }
+
+        lock.lock();
+        try {
+            this.refreshFraction = fraction;
+            this.refreshLoader = loader;
+            this.refreshExecutor = executor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set the time source of the cache. The ticker must be set while the cache is empty.
+     *
+     * @param ticker the ticker
+     */
+    public void setTicker(final Ticker ticker) {
+        lock.lock();
+        try {
+            if (!isEmpty()) {
+                throw new IllegalStateException("The ticker must be set on an empty cache");
+            }
+            this.ticker = ticker;
+            this.wheel = new TimerWheel<>(ticker.read());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marcheaza accesul la o intrare si ii muta termenul de expirare.
+     *
+     * @param node Nodul accesat.
+     * @param now  Momentul accesului, in nanosecunde.
+     */
+    private void touch(final TimedNode<K, V> node, final long now) {
+        node.setAccessTime(now);
+        if (node.getTimeToLive() == TimedNode.NO_EXPIRATION) {
+            wheel.deschedule(node);
+            return;
+        }
+        node.setDeadline(now + node.getTimeToLive());
+        wheel.schedule(node);
+    }
+
+    private void expireEntry(final K key) {
+        V value = remove(key);
+        this.cacheListener.onExpire(key, value);
+    }
+
+    private boolean shouldRefresh(final TimedNode<K, V> node, final long now) {
+        return refreshLoader != null
+                && !node.isRefreshing()
+                && node.getTimeToLive() != TimedNode.NO_EXPIRATION
+                && now - node.getWriteTime() >= (long) (node.getTimeToLive() * refreshFraction);
+    }
+
+    /**
+     * Reincarca in fundal valoarea unei intrari. Intrarea este marcata, astfel incat citirile
+     * urmatoare sa nu porneasca alte reincarcari.
+     *
+     * @param node Nodul ce trebuie reimprospatat.
+     */
+    private void refresh(final TimedNode<K, V> node) {
+        final K key = node.getKey();
+        final long writeTime = node.getWriteTime();
+        final CacheLoader<K, V> loader = refreshLoader;
+
+        node.setRefreshing(true);
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    V value;
+                    try {
+                        value = loader.load(key);
+                    } catch (IOException | RuntimeException e) {
+                        value = null;
+                    }
+                    completeRefresh(node, writeTime, value);
                 }
+            });
+        } catch (RejectedExecutionException e) {
+            node.setRefreshing(false);
+        }
+    }
+
+    /**
+     * Salveaza valoarea reincarcata, daca intrarea nu a fost intre timp eliminata sau
+     * suprascrisa.
+     *
+     * @param node      Nodul reimprospatat.
+     * @param writeTime Momentul scrierii valorii vechi.
+     * @param value     Valoarea noua, sau null daca incarcarea a esuat.
+     */
+    private void completeRefresh(final TimedNode<K, V> node, final long writeTime,
+                                 final V value) {
+        lock.lock();
+        try {
+            node.setRefreshing(false);
+            if (value != null
+                    && this.getLruCache().get(node.getKey()) == node
+                    && node.getWriteTime() == writeTime) {
+                put(node.getKey(), value, node.getTimeToLive());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Curatarea periodica. Retine cache-ul printr-o referinta slaba si se anuleaza singura
+     * atunci cand cache-ul nu mai este folosit.
+     */
+    private static final class CleanUpTask<K, V> implements Runnable {
+        private final WeakReference<TimeAwareCache<K, V>> cacheReference;
+        private final int maxEntriesPerRun;
+        private volatile ScheduledFuture<?> future;
+
+        CleanUpTask(final TimeAwareCache<K, V> cache, final int maxEntriesPerRun) {
+            this.cacheReference = new WeakReference<>(cache);
+            this.maxEntriesPerRun = maxEntriesPerRun;
+        }
+
+        @Override
+        public void run() {
+            TimeAwareCache<K, V> cache = cacheReference.get();
+            if (cache == null) {
+                ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                return;
             }
-        });
+            cache.cleanUp(maxEntriesPerRun);
+        }
     }
 }
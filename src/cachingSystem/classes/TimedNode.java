@@ -0,0 +1,92 @@
+package cachingSystem.classes;
+
+/**
+ * Node of a TimeAwareCache. Besides its place in the LRU list, it stores the times the entry was
+ * last accessed and written, whether it is being refreshed, its time to live and its place in the
+ * TimerWheel, so expiring or refreshing an entry needs no lookup in a separate map.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class TimedNode<K, V> extends Node<K, V> {
+    static final long NO_EXPIRATION = -1;
+
+    private long accessTime;
+    private long writeTime;
+    private boolean refreshing;
+    private long timeToLive = NO_EXPIRATION;
+    private long deadline;
+    private TimedNode<K, V> timerPrev;
+    private TimedNode<K, V> timerNext;
+
+    TimedNode(final Node<K, V> prev, final Node<K, V> next, final K key, final V value) {
+        super(prev, next, key, value);
+    }
+
+    long getAccessTime() {
+        return accessTime;
+    }
+
+    void setAccessTime(final long accessTime) {
+        this.accessTime = accessTime;
+    }
+
+    long getWriteTime() {
+        return writeTime;
+    }
+
+    void setWriteTime(final long writeTime) {
+        this.writeTime = writeTime;
+    }
+
+    boolean isRefreshing() {
+        return refreshing;
+    }
+
+    void setRefreshing(final boolean refreshing) {
+        this.refreshing = refreshing;
+    }
+
+    long getTimeToLive() {
+        return timeToLive;
+    }
+
+    void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(final long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Tells whether the entry expired at time @now. Times are compared by their difference, so
+     * they may overflow.
+     *
+     * @param now the current time, in nanoseconds
+     * @return true if the entry has a time to live and it elapsed
+     */
+    boolean isExpired(final long now) {
+        return timeToLive != NO_EXPIRATION && now - deadline > 0;
+    }
+
+    TimedNode<K, V> getTimerPrev() {
+        return timerPrev;
+    }
+
+    void setTimerPrev(final TimedNode<K, V> timerPrev) {
+        this.timerPrev = timerPrev;
+    }
+
+    TimedNode<K, V> getTimerNext() {
+        return timerNext;
+    }
+
+    void setTimerNext(final TimedNode<K, V> timerNext) {
+        this.timerNext = timerNext;
+    }
+}
@@ -0,0 +1,203 @@
+package cachingSystem.classes;
+
+/**
+ * Hierarchical timer wheel used to expire the entries of a TimeAwareCache in amortized O(1).
+ * Every level is a ring of 64 buckets; a bucket of level i spans 64 times more time than a
+ * bucket of level i - 1. A timer is placed on the finest level that can hold its deadline. When
+ * time advances, only the buckets whose span has passed are visited: their due timers are
+ * expired and the others cascade to a finer level.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class TimerWheel<K, V> {
+    /* Bucket spans: ~67ms, ~4.3s, ~4.6min, ~4.9h, ~13 days. */
+    private static final int[] SHIFTS = {26, 32, 38, 44, 50};
+    private static final int BUCKETS = 64;
+    private static final int BUCKET_MASK = BUCKETS - 1;
+
+    /**
+     * Callback invoked for every expired timer.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    interface ExpirationHandler<K, V> {
+        void expire(TimedNode<K, V> node);
+    }
+
+    private final TimedNode<K, V>[][] wheel;
+    private long currentTime;
+    private int remainingExpirations;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(final long now) {
+        wheel = new TimedNode[SHIFTS.length][BUCKETS];
+        for (TimedNode<K, V>[] level : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                TimedNode<K, V> sentinel = new TimedNode<>(null, null, null, null);
+                sentinel.setTimerPrev(sentinel);
+                sentinel.setTimerNext(sentinel);
+                level[i] = sentinel;
+            }
+        }
+        currentTime = now;
+    }
+
+    /**
+     * Schedule a node to expire at its deadline, moving it if it was already scheduled.
+     *
+     * @param node the node
+     */
+    void schedule(final TimedNode<K, V> node) {
+        deschedule(node);
+
+        TimedNode<K, V> sentinel = findBucket(node.getDeadline());
+        TimedNode<K, V> last = sentinel.getTimerPrev();
+
+        node.setTimerPrev(last);
+        node.setTimerNext(sentinel);
+        last.setTimerNext(node);
+        sentinel.setTimerPrev(node);
+    }
+
+    /**
+     * Remove a node from the wheel, if it is scheduled.
+     *
+     * @param node the node
+     */
+    void deschedule(final TimedNode<K, V> node) {
+        TimedNode<K, V> next = node.getTimerNext();
+        if (next == null) {
+            return;
+        }
+
+        TimedNode<K, V> prev = node.getTimerPrev();
+        prev.setTimerNext(next);
+        next.setTimerPrev(prev);
+        node.setTimerPrev(null);
+        node.setTimerNext(null);
+    }
+
+    /**
+     * Advance the wheel to @now, expiring the due timers in the buckets that were passed. At most
+     * @maxExpirations timers are expired; once the budget is spent, the wheel stops at the bucket
+     * it was visiting and the next call resumes from there.
+     *
+     * @param now            the current time, in nanoseconds
+     * @param handler        the callback for the expired nodes
+     * @param maxExpirations the maximum number of timers to expire
+     * @return the number of expired timers
+     */
+    int advance(final long now, final ExpirationHandler<K, V> handler, final int maxExpirations) {
+        long previousTime = currentTime;
+        currentTime = now;
+        remainingExpirations = maxExpirations;
+
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previousTime >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+            long delta = currentTicks - previousTicks;
+
+            if (delta <= 0 || !expire(level, previousTicks, delta, handler)) {
+                break;
+            }
+        }
+        return maxExpirations - remainingExpirations;
+    }
+
+    /**
+     * Remove every timer from the wheel.
+     */
+    void clear() {
+        for (TimedNode<K, V>[] level : wheel) {
+            for (TimedNode<K, V> sentinel : level) {
+                TimedNode<K, V> node = sentinel.getTimerNext();
+                while (node != sentinel) {
+                    TimedNode<K, V> next = node.getTimerNext();
+                    node.setTimerPrev(null);
+                    node.setTimerNext(null);
+                    node = next;
+                }
+                sentinel.setTimerPrev(sentinel);
+                sentinel.setTimerNext(sentinel);
+            }
+        }
+    }
+
+    /**
+     * Viziteaza bucket-urile unui nivel intre tick-ul anterior si cel curent (inclusiv). Fiecare
+     * bucket este detasat inainte de parcurgere, astfel incat nodurile replanificate sa nu fie
+     * vizitate din nou. Daca bugetul se epuizeaza, restul bucket-ului este reatasat si ceasul
+     * rotii este dat inapoi la acest bucket.
+     *
+     * @return false daca bugetul s-a epuizat inainte de parcurgerea tuturor bucket-urilor
+     */
+    private boolean expire(final int level, final long previousTicks, final long delta,
+                           final ExpirationHandler<K, V> handler) {
+        TimedNode<K, V>[] buckets = wheel[level];
+        int steps = (int) Math.min(delta + 1, BUCKETS);
+        int start = (int) (previousTicks & BUCKET_MASK);
+
+        for (int i = start; i < start + steps; i++) {
+            TimedNode<K, V> sentinel = buckets[i & BUCKET_MASK];
+            TimedNode<K, V> node = sentinel.getTimerNext();
+            TimedNode<K, V> tail = sentinel.getTimerPrev();
+
+            sentinel.setTimerPrev(sentinel);
+            sentinel.setTimerNext(sentinel);
+
+            while (node != sentinel) {
+                if (remainingExpirations == 0) {
+                    reattach(sentinel, node, tail);
+                    currentTime = (previousTicks + i - start) << SHIFTS[level];
+                    return false;
+                }
+
+                TimedNode<K, V> next = node.getTimerNext();
+                node.setTimerPrev(null);
+                node.setTimerNext(null);
+
+                if (node.isExpired(currentTime)) {
+                    remainingExpirations--;
+                    handler.expire(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reataseaza la inceputul unui bucket nodurile inca neparcurse, de la @first la @last.
+     */
+    private void reattach(final TimedNode<K, V> sentinel, final TimedNode<K, V> first,
+                          final TimedNode<K, V> last) {
+        TimedNode<K, V> oldFirst = sentinel.getTimerNext();
+
+        first.setTimerPrev(sentinel);
+        last.setTimerNext(oldFirst);
+        oldFirst.setTimerPrev(last);
+        sentinel.setTimerNext(first);
+    }
+
+    /**
+     * Alege bucket-ul unui termen: cel mai fin nivel ce acopera durata ramasa. Termenele deja
+     * depasite ajung in bucket-ul curent al primului nivel.
+     */
+    private TimedNode<K, V> findBucket(final long deadline) {
+        long duration = deadline - currentTime;
+        long time = duration < 0 ? currentTime : deadline;
+
+        for (int level = 0; level < SHIFTS.length - 1; level++) {
+            if (duration < 1L << SHIFTS[level + 1]) {
+                return wheel[level][(int) ((time >>> SHIFTS[level]) & BUCKET_MASK)];
+            }
+        }
+
+        int last = SHIFTS.length - 1;
+        return wheel[last][(int) ((time >>> SHIFTS[last]) & BUCKET_MASK)];
+    }
+}
@@ -0,0 +1,263 @@
+package cachingSystem.classes;
+
+import dataStructures.classes.Pair;
+
+import java.util.HashMap;
+
+/**
+ * The TinyLFUCache implements the W-TinyLFU policy. New entries are admitted into a small LRU
+ * window (1% of the capacity); entries pushed out of the window join the probation segment of
+ * the main region, and entries hit while on probation are promoted to the protected segment (80%
+ * of the main region). When the cache is over capacity, the entry just pushed out of the window
+ * competes with the eldest one on probation, and the one that a frequency sketch estimates as less
+ * popular is evicted. This way, keys that are read only once, e.g. by a scan, cannot flush the
+ * frequently read ones.
+ *
+ * <p>The entry that loses the competition is the one returned by getEldestEntry, so capacity is
+ * enforced by the usual stale policy.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class TinyLFUCache<K, V> extends ObservableCache<K, V> {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int PERCENT = 100;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final HashMap<K, Entry<K, V>> data;
+    private final NodeDeque<K, V> window;
+    private final NodeDeque<K, V> probation;
+    private final NodeDeque<K, V> protectedSegment;
+    private final FrequencySketch<K> sketch;
+    private final int maximumWindowSize;
+    private final int maximumProtectedSize;
+    private Entry<K, V> candidate;
+
+    /**
+     * Create a cache sized for @maximumSize entries.
+     *
+     * @param maximumSize the capacity the cache is sized for
+     */
+    public TinyLFUCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + maximumSize);
+        }
+
+        int windowSize = Math.max(1, maximumSize * WINDOW_PERCENT / PERCENT);
+        int mainSize = Math.max(0, maximumSize - windowSize);
+
+        data = new HashMap<>();
+        window = new NodeDeque<>();
+        probation = new NodeDeque<>();
+        protectedSegment = new NodeDeque<>();
+        sketch = new FrequencySketch<>(maximumSize);
+        maximumWindowSize = windowSize;
+        maximumProtectedSize = mainSize * PROTECTED_PERCENT / PERCENT;
+    }
+
+    @Override
+    public V get(final K key) {
+        sketch.increment(key);
+
+        Entry<K, V> entry = data.get(key);
+        if (entry == null) {
+            this.cacheListener.onMiss(key);
+            return null;
+        }
+
+        onAccess(entry);
+        this.cacheListener.onHit(key);
+        return entry.getValue();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        sketch.increment(key);
+
+        Entry<K, V> entry = data.get(key);
+        if (entry != null) {
+            recordReplacement(key, entry.getValue(), value);
+            entry.setValue(value);
+            onAccess(entry);
+        } else {
+            entry = new Entry<>(key, value);
+            data.put(key, entry);
+            window.linkLast(entry);
+            recordInsertion(key, value);
+            evictFromWindow();
+        }
+
+        this.clearStaleEntries();
+        this.cacheListener.onPut(key, value);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public V remove(final K key) {
+        Entry<K, V> entry = data.remove(key);
+        if (entry == null) {
+            return null;
+        }
+
+        queueOf(entry).unlink(entry);
+        if (entry == candidate) {
+            candidate = null;
+        }
+        recordRemoval(key, entry.getValue());
+        return entry.getValue();
+    }
+
+    @Override
+    public void clearAll() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        candidate = null;
+        resetWeight();
+    }
+
+    /**
+     * Return the entry that should be evicted next: the loser between the entry last pushed out
+     * of the window and the eldest entry on probation. Ties are lost by the entry from the window,
+     * which protects the cache from scans.
+     *
+     * @return the next victim, or null if the cache is empty
+     */
+    @Override
+    public Pair<K, V> getEldestEntry() {
+        Node<K, V> victim = selectVictim();
+        return victim == null ? null : new Pair<>(victim.getKey(), victim.getValue());
+    }
+
+    @Override
+    Pair<K, V> peekEldest() {
+        return selectVictim();
+    }
+
+    /**
+     * Remove the loser of the competition. Either way the competition is over, so the entry that
+     * won stays on probation as an ordinary entry.
+     *
+     * @return the removed entry
+     */
+    @Override
+    Pair<K, V> pollEldest() {
+        Node<K, V> victim = selectVictim();
+        if (victim != null) {
+            remove(victim.getKey());
+            candidate = null;
+        }
+        return victim;
+    }
+
+    /**
+     * Alege victima: candidatul (ultima intrare iesita din fereastra) concureaza cu cea mai veche
+     * intrare din probatiune. Fara candidat, victima este cea mai veche intrare din probatiune;
+     * daca probatiunea este goala, cea mai veche din fereastra, respectiv din segmentul protejat.
+     *
+     * @return Victima, sau null daca cache-ul este gol.
+     */
+    private Node<K, V> selectVictim() {
+        Node<K, V> victim = probation.peekFirst();
+
+        if (victim == null) {
+            victim = window.isEmpty() ? protectedSegment.peekFirst() : window.peekFirst();
+            return victim;
+        }
+        if (candidate == null || candidate == victim) {
+            return victim;
+        }
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            return victim;
+        }
+        return candidate;
+    }
+
+    /**
+     * Actualizeaza pozitia unei intrari accesate: intrarile din probatiune sunt promovate in
+     * segmentul protejat, iar celelalte devin cele mai recente din segmentul lor.
+     *
+     * @param entry Intrarea accesata.
+     */
+    private void onAccess(final Entry<K, V> entry) {
+        switch (entry.queue) {
+            case WINDOW:
+                window.moveToBack(entry);
+                break;
+            case PROBATION:
+                if (maximumProtectedSize == 0) {
+                    probation.moveToBack(entry);
+                    break;
+                }
+                probation.unlink(entry);
+                protectedSegment.linkLast(entry);
+                entry.queue = PROTECTED;
+                if (entry == candidate) {
+                    candidate = null;
+                }
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                protectedSegment.moveToBack(entry);
+                break;
+            default:
+                throw new IllegalStateException("Unknown queue: " + entry.queue);
+        }
+    }
+
+    private void evictFromWindow() {
+        while (window.size() > maximumWindowSize) {
+            Entry<K, V> entry = (Entry<K, V>) window.pollFirst();
+            probation.linkLast(entry);
+            entry.queue = PROBATION;
+            candidate = entry;
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedSegment.size() > maximumProtectedSize) {
+            Entry<K, V> entry = (Entry<K, V>) protectedSegment.pollFirst();
+            probation.linkLast(entry);
+            entry.queue = PROBATION;
+        }
+    }
+
+    private NodeDeque<K, V> queueOf(final Entry<K, V> entry) {
+        switch (entry.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            case PROTECTED:
+                return protectedSegment;
+            default:
+                throw new IllegalStateException("Unknown queue: " + entry.queue);
+        }
+    }
+
+    /**
+     * Nod ce retine si segmentul in care se afla intrarea.
+     */
+    private static final class Entry<K, V> extends Node<K, V> {
+        private int queue;
+
+        Entry(final K key, final V value) {
+            super(null, null, key, value);
+            this.queue = WINDOW;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package cachingSystem.interfaces;
+
+import java.io.IOException;
+
+/**
+ * The CacheLoader interface defines how the value of a key that is missing from a cache is
+ * computed.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface CacheLoader<K, V> {
+
+    /**
+     * Compute the value associated with a key.
+     *
+     * @param key the key to load
+     * @return the loaded value, never null
+     * @throws IOException if the value could not be read
+     */
+    V load(K key) throws IOException;
+}
@@ -14,7 +14,8 @@ public interface CacheStalePolicy<K, V> {
      * Return whether or not the eldest entry should be removed from the cache. This can be used to
      * limit the capacity of a cache, or to remove old entries based on custom logic.
      *
-     * @param entry the eldest entry, as returned by @Cache.getEldestEntry
+     * @param entry the eldest entry; it may be the entry stored by the cache, so it must not be
+     *              modified nor kept after the call
      * @return true if the eldest entry should be removed, false otherwise
      */
     boolean shouldRemoveEldestEntry(Pair<K, V> entry);
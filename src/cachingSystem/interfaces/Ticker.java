@@ -0,0 +1,15 @@
+package cachingSystem.interfaces;
+
+/**
+ * The Ticker interface is a source of monotonic time, used by caches that expire their entries.
+ */
+public interface Ticker {
+
+    /**
+     * Return the current time, in nanoseconds, relative to an arbitrary fixed origin. Only the
+     * difference between two readings is meaningful.
+     *
+     * @return the current time, in nanoseconds
+     */
+    long read();
+}
@@ -0,0 +1,21 @@
+package cachingSystem.interfaces;
+
+/**
+ * The Weigher interface computes the weight of a cache entry, used to limit caches by total
+ * weight rather than by number of entries.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface Weigher<K, V> {
+
+    /**
+     * Return the weight of an entry. The weight of an entry must not change while it is stored in
+     * the cache.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the weight, greater than or equal to zero
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,182 @@
+package dataStructures.classes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram counts durations, in nanoseconds, in log-linear buckets: every power of two
+ * is split in 64 equal sub-buckets, so any recorded value is reported with a relative error below
+ * 1.6%, whatever its magnitude. Durations above ~18 minutes are counted as 2^40 - 1 ns.
+ *
+ * <p>Recording is a single atomic increment and allocates nothing, so one histogram can be shared
+ * by all the threads that use a cache. Percentiles are computed by walking the buckets.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAXIMUM_MAGNITUDE = 40;
+    private static final long MAXIMUM_VALUE = (1L << MAXIMUM_MAGNITUDE) - 1;
+    private static final int BUCKET_COUNT = (MAXIMUM_MAGNITUDE - SUB_BUCKET_BITS + 1)
+            * SUB_BUCKET_COUNT;
+    private static final double PERCENT = 100.0;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong maximum;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new AtomicLong();
+        this.maximum = new AtomicLong();
+    }
+
+    /**
+     * Record a duration. Negative durations are counted as 0.
+     *
+     * @param nanos the duration, in nanoseconds
+     */
+    public void record(final long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAXIMUM_VALUE);
+
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+
+        long currentMaximum = maximum.get();
+        while (value > currentMaximum && !maximum.compareAndSet(currentMaximum, value)) {
+            currentMaximum = maximum.get();
+        }
+    }
+
+    /**
+     * Get the number of recorded durations.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Get the longest recorded duration, or 0 if nothing was recorded.
+     *
+     * @return the maximum, in nanoseconds
+     */
+    public long getMax() {
+        return maximum.get();
+    }
+
+    /**
+     * Get the duration below which @percentile percent of the recorded durations fall, e.g. 99.9
+     * for the p999. The result is the upper bound of the matching bucket, capped by the maximum.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0 || percentile > PERCENT) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the mean of the recorded durations, computed from the buckets.
+     *
+     * @return the mean, in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = 0;
+        double total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                count += bucketCount;
+                total += (double) bucketCount * (lowestValueAt(i) + highestValueAt(i)) / 2;
+            }
+        }
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Move the recorded durations into a new histogram and start over, so that consecutive calls
+     * report disjoint intervals. Durations recorded concurrently end up in exactly one of the two
+     * histograms.
+     *
+     * @return a histogram with the durations recorded since the previous call
+     */
+    public LatencyHistogram copyAndReset() {
+        LatencyHistogram interval = new LatencyHistogram();
+
+        interval.maximum.set(maximum.getAndSet(0));
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.getAndSet(i, 0);
+            if (bucketCount != 0) {
+                interval.counts.set(i, bucketCount);
+                interval.totalCount.addAndGet(bucketCount);
+            }
+        }
+        totalCount.addAndGet(-interval.totalCount.get());
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount()
+                + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99)
+                + ", p999=" + getValueAtPercentile(99.9)
+                + ", max=" + getMax() + "}";
+    }
+
+    /**
+     * Bucket-ul unei valori: valorile mici au cate un bucket propriu, iar fiecare putere a lui 2
+     * mai mare este impartita in SUB_BUCKET_COUNT bucket-uri egale.
+     */
+    private static int indexOf(final long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    private static long lowestValueAt(final int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    private static long highestValueAt(final int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,297 @@
+package dataStructures.classes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The StreamSummary counts the occurrences of the most frequent keys of a stream in bounded memory,
+ * using the Space-Saving algorithm. At most @capacity keys are tracked; when a new key arrives and
+ * the summary is full, it takes over the counter of the least frequent key, inheriting its count
+ * as an overestimation error. Every key that occurs more than n / capacity times in a stream of n
+ * keys is guaranteed to be tracked, and the count of a tracked key exceeds its real count by at
+ * most its error.
+ *
+ * <p>Counters with the same count are grouped in buckets, kept in a list ordered by count, so an
+ * increment is O(1) and the k most frequent keys are listed in O(k). A summary without a capacity
+ * never replaces a counter, so it keeps the exact count of every key.
+ *
+ * @param <K> the key type
+ */
+public final class StreamSummary<K> {
+    private final int capacity;
+    private final HashMap<K, Counter<K>> counters;
+    private Bucket<K> minimumBucket;
+    private Bucket<K> maximumBucket;
+
+    /**
+     * Create a summary that tracks every key, with exact counts.
+     */
+    public StreamSummary() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a summary that tracks at most @capacity keys.
+     *
+     * @param capacity the maximum number of tracked keys
+     */
+    public StreamSummary(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+    }
+
+    /**
+     * Count an occurrence of @key.
+     *
+     * @param key the key
+     */
+    public void increment(final K key) {
+        Counter<K> counter = counters.get(key);
+
+        if (counter != null) {
+            increment(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter<>(key, 0);
+            counters.put(key, counter);
+            addWithCountOne(counter);
+        } else {
+            counter = minimumBucket.first;
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = minimumBucket.count;
+            counters.put(key, counter);
+            increment(counter);
+        }
+    }
+
+    /**
+     * Get the count of a key, which may overestimate the real count by at most getError(key).
+     *
+     * @param key the key
+     * @return the count, or 0 if the key is not tracked
+     */
+    public int getCount(final K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? 0 : counter.bucket.count;
+    }
+
+    /**
+     * Get the maximum overestimation of the count of a key.
+     *
+     * @param key the key
+     * @return the error, or 0 if the key is not tracked
+     */
+    public int getError(final K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? 0 : counter.error;
+    }
+
+    /**
+     * Get the number of tracked keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * List the @top keys with the highest counts, in descending order of their counts. Keys with
+     * equal counts are listed in the order they reached that count.
+     *
+     * @param top the number of keys
+     * @return the list of keys
+     */
+    public List<K> top(final int top) {
+        ArrayList<K> keys = new ArrayList<>(Math.max(0, Math.min(top, counters.size())));
+
+        for (Bucket<K> bucket = maximumBucket; bucket != null && keys.size() < top;
+             bucket = bucket.prev) {
+            for (Counter<K> counter = bucket.first; counter != null && keys.size() < top;
+                 counter = counter.next) {
+                keys.add(counter.key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Halve every count and error, rounding down, and stop tracking the keys whose count drops to
+     * 0. Halving the summary at a fixed interval makes it an exponentially decaying count, where
+     * recent occurrences weigh more than old ones. The order of the keys is preserved; runs in
+     * O(size()).
+     */
+    public void halve() {
+        Bucket<K> bucket = minimumBucket;
+
+        while (bucket != null) {
+            Bucket<K> next = bucket.next;
+            int count = bucket.count >>> 1;
+
+            for (Counter<K> counter = bucket.first; counter != null; counter = counter.next) {
+                counter.error >>>= 1;
+            }
+
+            if (count == 0) {
+                for (Counter<K> counter = bucket.first; counter != null; counter = counter.next) {
+                    counters.remove(counter.key);
+                }
+                unlinkBucket(bucket);
+            } else if (bucket.prev != null && bucket.prev.count == count) {
+                bucket.prev.prependAll(bucket);
+                unlinkBucket(bucket);
+            } else {
+                bucket.count = count;
+            }
+            bucket = next;
+        }
+    }
+
+    /**
+     * Adauga un contor nou in bucket-ul cu numarul 1, creandu-l daca nu exista.
+     */
+    private void addWithCountOne(final Counter<K> counter) {
+        Bucket<K> bucket = minimumBucket;
+        if (bucket == null || bucket.count != 1) {
+            bucket = new Bucket<>(1);
+            linkBucketAfter(null, bucket);
+        }
+        bucket.append(counter);
+    }
+
+    /**
+     * Muta un contor in bucket-ul urmator. Daca contorul este singur in bucket-ul sau si nu
+     * exista un bucket cu numarul urmator, bucket-ul este refolosit.
+     */
+    private void increment(final Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+        int count = bucket.count + 1;
+        Bucket<K> next = bucket.next;
+
+        if (bucket.first == counter && bucket.last == counter
+                && (next == null || next.count != count)) {
+            bucket.count = count;
+            return;
+        }
+
+        bucket.remove(counter);
+        if (next == null || next.count != count) {
+            next = new Bucket<>(count);
+            linkBucketAfter(bucket, next);
+        }
+        next.append(counter);
+
+        if (bucket.first == null) {
+            unlinkBucket(bucket);
+        }
+    }
+
+    /**
+     * Insereaza un bucket dupa @previous, sau la inceputul listei daca @previous este null.
+     */
+    private void linkBucketAfter(final Bucket<K> previous, final Bucket<K> bucket) {
+        Bucket<K> next = previous == null ? minimumBucket : previous.next;
+
+        bucket.prev = previous;
+        bucket.next = next;
+        if (previous == null) {
+            minimumBucket = bucket;
+        } else {
+            previous.next = bucket;
+        }
+        if (next == null) {
+            maximumBucket = bucket;
+        } else {
+            next.prev = bucket;
+        }
+    }
+
+    private void unlinkBucket(final Bucket<K> bucket) {
+        if (bucket.prev == null) {
+            minimumBucket = bucket.next;
+        } else {
+            bucket.prev.next = bucket.next;
+        }
+        if (bucket.next == null) {
+            maximumBucket = bucket.prev;
+        } else {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    /**
+     * Contorul unei chei, inlantuit cu celelalte contoare din acelasi bucket.
+     */
+    private static final class Counter<K> {
+        private K key;
+        private int error;
+        private Bucket<K> bucket;
+        private Counter<K> prev;
+        private Counter<K> next;
+
+        Counter(final K key, final int error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Grupul contoarelor cu acelasi numar, in ordinea in care l-au atins.
+     */
+    private static final class Bucket<K> {
+        private int count;
+        private Bucket<K> prev;
+        private Bucket<K> next;
+        private Counter<K> first;
+        private Counter<K> last;
+
+        Bucket(final int count) {
+            this.count = count;
+        }
+
+        void append(final Counter<K> counter) {
+            counter.bucket = this;
+            counter.prev = last;
+            counter.next = null;
+            if (last == null) {
+                first = counter;
+            } else {
+                last.next = counter;
+            }
+            last = counter;
+        }
+
+        /**
+         * Muta contoarele din @other la inceputul acestui bucket, pastrand ordinea lor.
+         */
+        void prependAll(final Bucket<K> other) {
+            for (Counter<K> counter = other.first; counter != null; counter = counter.next) {
+                counter.bucket = this;
+            }
+            other.last.next = first;
+            first.prev = other.last;
+            first = other.first;
+            other.first = null;
+            other.last = null;
+        }
+
+        void remove(final Counter<K> counter) {
+            if (counter.prev == null) {
+                first = counter.next;
+            } else {
+                counter.prev.next = counter.next;
+            }
+            if (counter.next == null) {
+                last = counter.prev;
+            } else {
+                counter.next.prev = counter.prev;
+            }
+            counter.prev = null;
+            counter.next = null;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package observerPattern.classes;
+
+import observerPattern.interfaces.CacheListener;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The AsyncBroadcastListener takes cache events off the caller's thread. Events are written into a
+ * bounded lock-free ring buffer and delivered in batches to a delegate listener, usually a
+ * BroadcastListener, by a dedicated daemon thread. When the buffer is full, events are either
+ * dropped and counted, or the caller waits for free space, depending on the overflow policy.
+ *
+ * <p>Listeners are called from the dispatcher thread, in the order the events were published, so
+ * they must tolerate being read concurrently with the cache. The dispatcher thread stops when the
+ * listener is closed, or once it is garbage collected.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class AsyncBroadcastListener<K, V> implements CacheListener<K, V> {
+    private static final int HIT = 0;
+    private static final int MISS = 1;
+    private static final int PUT = 2;
+    private static final int EVICT = 3;
+    private static final int EXPIRE = 4;
+    private static final int LOAD_SUCCESS = 5;
+    private static final int LOAD_FAILURE = 6;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAXIMUM_BUFFER_SIZE = 1 << 30;
+
+    /**
+     * What a cache operation does when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** The event is discarded and counted as dropped. */
+        DROP,
+        /** The caller waits until the dispatcher frees a slot. */
+        BLOCK,
+    }
+
+    private final RingBuffer<K, V> ringBuffer;
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Create a listener that dispatches the events to @delegate on a background thread.
+     *
+     * @param delegate       the listener that receives the events
+     * @param bufferSize     the number of events that can be pending, rounded up to a power of two
+     * @param overflowPolicy what to do when @bufferSize events are pending
+     */
+    public AsyncBroadcastListener(final CacheListener<K, V> delegate, final int bufferSize,
+                                  final OverflowPolicy overflowPolicy) {
+        if (bufferSize <= 0 || bufferSize > MAXIMUM_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+
+        this.ringBuffer = new RingBuffer<>(delegate, bufferSize);
+        this.overflowPolicy = overflowPolicy;
+
+        Thread dispatcher = new Thread(new DispatchLoop<>(ringBuffer, this),
+                "cache-event-dispatcher");
+        dispatcher.setDaemon(true);
+        ringBuffer.consumer = dispatcher;
+        dispatcher.start();
+    }
+
+    @Override
+    public void onHit(final K key) {
+        publish(HIT, key, null, 0);
+    }
+
+    @Override
+    public void onMiss(final K key) {
+        publish(MISS, key, null, 0);
+    }
+
+    @Override
+    public void onPut(final K key, final V value) {
+        publish(PUT, key, value, 0);
+    }
+
+    @Override
+    public void onEvict(final K key, final V value) {
+        publish(EVICT, key, value, 0);
+    }
+
+    @Override
+    public void onExpire(final K key, final V value) {
+        publish(EXPIRE, key, value, 0);
+    }
+
+    @Override
+    public void onLoadSuccess(final K key, final long loadNanos) {
+        publish(LOAD_SUCCESS, key, null, loadNanos);
+    }
+
+    @Override
+    public void onLoadFailure(final K key, final long loadNanos) {
+        publish(LOAD_FAILURE, key, null, loadNanos);
+    }
+
+    /**
+     * Get the number of events discarded because the buffer was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return ringBuffer.droppedEvents.sum();
+    }
+
+    /**
+     * Wait until every event published before this call was delivered.
+     */
+    public void flush() {
+        long target = ringBuffer.tail.get();
+        while (ringBuffer.head < target && !ringBuffer.closed) {
+            LockSupport.unpark(ringBuffer.consumer);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Stop the dispatcher thread. The events that are still pending are discarded.
+     */
+    public void close() {
+        ringBuffer.closed = true;
+        LockSupport.unpark(ringBuffer.consumer);
+    }
+
+    /**
+     * Publica un eveniment. Daca buffer-ul este plin, evenimentul este pierdut sau apelantul
+     * asteapta, in functie de politica aleasa.
+     */
+    private void publish(final int type, final K key, final V value, final long duration) {
+        while (!ringBuffer.offer(type, key, value, duration)) {
+            if (overflowPolicy == OverflowPolicy.DROP || ringBuffer.closed) {
+                ringBuffer.droppedEvents.increment();
+                return;
+            }
+            LockSupport.unpark(ringBuffer.consumer);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Buffer circular cu mai multi producatori si un singur consumator. Fiecare slot are un numar
+     * de secventa: producatorul care castiga slotul prin CAS pe tail scrie evenimentul si apoi
+     * publica secventa, iar consumatorul citeste doar sloturile publicate.
+     */
+    private static final class RingBuffer<K, V> {
+        private final CacheListener<K, V> delegate;
+        private final int mask;
+        private final AtomicLongArray sequences;
+        private final int[] types;
+        private final Object[] keys;
+        private final Object[] values;
+        private final long[] durations;
+        private final AtomicLong tail = new AtomicLong();
+        private final LongAdder droppedEvents = new LongAdder();
+        private volatile long head;
+        private volatile boolean waiting;
+        private volatile boolean closed;
+        private volatile Thread consumer;
+
+        RingBuffer(final CacheListener<K, V> delegate, final int bufferSize) {
+            int capacity = bufferSize == 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+
+            this.delegate = delegate;
+            this.mask = capacity - 1;
+            this.sequences = new AtomicLongArray(capacity);
+            this.types = new int[capacity];
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
+            this.durations = new long[capacity];
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(final int type, final Object key, final Object value,
+                      final long duration) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        types[index] = type;
+                        keys[index] = key;
+                        values[index] = value;
+                        durations[index] = duration;
+                        sequences.set(index, position + 1);
+                        if (waiting) {
+                            LockSupport.unpark(consumer);
+                        }
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        /**
+         * Livreaza toate evenimentele publicate.
+         *
+         * @return Numarul de evenimente livrate.
+         */
+        @SuppressWarnings("unchecked")
+        int drain() {
+            long position = head;
+            int delivered = 0;
+
+            while (true) {
+                int index = (int) (position & mask);
+                if (sequences.get(index) != position + 1) {
+                    break;
+                }
+
+                int type = types[index];
+                K key = (K) keys[index];
+                V value = (V) values[index];
+                long duration = durations[index];
+                keys[index] = null;
+                values[index] = null;
+                sequences.set(index, position + mask + 1);
+
+                deliver(type, key, value, duration);
+                position++;
+                head = position;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        private void deliver(final int type, final K key, final V value, final long duration) {
+            try {
+                switch (type) {
+                    case HIT:
+                        delegate.onHit(key);
+                        break;
+                    case MISS:
+                        delegate.onMiss(key);
+                        break;
+                    case PUT:
+                        delegate.onPut(key, value);
+                        break;
+                    case EVICT:
+                        delegate.onEvict(key, value);
+                        break;
+                    case EXPIRE:
+                        delegate.onExpire(key, value);
+                        break;
+                    case LOAD_SUCCESS:
+                        delegate.onLoadSuccess(key, duration);
+                        break;
+                    case LOAD_FAILURE:
+                        delegate.onLoadFailure(key, duration);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown event: " + type);
+                }
+            } catch (RuntimeException e) {
+                /* Un listener defect nu trebuie sa opreasca livrarea celorlalte evenimente. */
+                Thread.UncaughtExceptionHandler handler = Thread.currentThread()
+                        .getUncaughtExceptionHandler();
+                handler.uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    /**
+     * Bucla firului de livrare. Retine listener-ul doar printr-o referinta slaba, astfel incat
+     * firul sa se opreasca atunci cand acesta nu mai este folosit.
+     */
+    private static final class DispatchLoop<K, V> implements Runnable {
+        private final RingBuffer<K, V> ringBuffer;
+        private final WeakReference<AsyncBroadcastListener<K, V>> ownerReference;
+
+        DispatchLoop(final RingBuffer<K, V> ringBuffer,
+                     final AsyncBroadcastListener<K, V> owner) {
+            this.ringBuffer = ringBuffer;
+            this.ownerReference = new WeakReference<>(owner);
+        }
+
+        @Override
+        public void run() {
+            while (!ringBuffer.closed && ownerReference.get() != null) {
+                if (ringBuffer.drain() > 0) {
+                    continue;
+                }
+
+                ringBuffer.waiting = true;
+                if (ringBuffer.drain() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                ringBuffer.waiting = false;
+            }
+        }
+    }
+}
@@ -2,13 +2,13 @@ package observerPattern.classes;
 
 import observerPattern.interfaces.CacheListener;
 
-import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The BroadcastListener broadcasts cache events to other listeners that have been added to it.
  */
 public class BroadcastListener<K, V> implements CacheListener<K, V> {
-    private ArrayList<CacheListener<K, V>> list = new ArrayList<>();
+    private CopyOnWriteArrayList<CacheListener<K, V>> list = new CopyOnWriteArrayList<>();
 
     /**
      * Add a listener to the broadcast list.
@@ -54,4 +54,32 @@ public class BroadcastListener<K, V> implements CacheListener<K, V> {
             listen.onPut(key, value);
         }
     }
+
+    @Override
+    public final void onEvict(final K key, final V value) {
+        for (CacheListener<K, V> listen : list) {
+            listen.onEvict(key, value);
+        }
+    }
+
+    @Override
+    public final void onExpire(final K key, final V value) {
+        for (CacheListener<K, V> listen : list) {
+            listen.onExpire(key, value);
+        }
+    }
+
+    @Override
+    public final void onLoadSuccess(final K key, final long loadNanos) {
+        for (CacheListener<K, V> listen : list) {
+            listen.onLoadSuccess(key, loadNanos);
+        }
+    }
+
+    @Override
+    public final void onLoadFailure(final K key, final long loadNanos) {
+        for (CacheListener<K, V> listen : list) {
+            listen.onLoadFailure(key, loadNanos);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package observerPattern.classes;
+
+/**
+ * Immutable snapshot of the statistics of a cache, as collected by a StatsListener.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long weightedSize;
+
+    public CacheStats(final long hitCount, final long missCount, final long putCount,
+                      final long evictionCount, final long expirationCount,
+                      final long loadSuccessCount, final long loadFailureCount,
+                      final long totalLoadTime, final long weightedSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.weightedSize = weightedSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * Get the time spent loading values, successfully or not.
+     *
+     * @return the total load time, in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * Get the total weight of the entries when the snapshot was taken, or 0 if it is unknown.
+     *
+     * @return the weighted size
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Get the ratio of the lookups that were hits, or 1 if there were no lookups.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Get the average time spent loading a value, or 0 if nothing was loaded.
+     *
+     * @return the average load time, in nanoseconds
+     */
+    public double getAverageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * Return a copy of this snapshot with the given weighted size.
+     *
+     * @param size the weighted size of the cache
+     * @return the new snapshot
+     */
+    public CacheStats withWeightedSize(final long size) {
+        return new CacheStats(hitCount, missCount, putCount, evictionCount, expirationCount,
+                loadSuccessCount, loadFailureCount, totalLoadTime, size);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount
+                + ", misses=" + missCount
+                + ", puts=" + putCount
+                + ", evictions=" + evictionCount
+                + ", expirations=" + expirationCount
+                + ", loadSuccesses=" + loadSuccessCount
+                + ", loadFailures=" + loadFailureCount
+                + ", totalLoadTime=" + totalLoadTime
+                + ", weightedSize=" + weightedSize + "}";
+    }
+}
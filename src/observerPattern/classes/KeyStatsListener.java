@@ -1,29 +1,82 @@
 package observerPattern.classes;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import dataStructures.classes.StreamSummary;
 import observerPattern.interfaces.CacheListener;
 
 /**
  * The KeyStatsListener collects key-level stats for cache operations.
  *
+ * <p>The counts of each kind of operation are kept in a StreamSummary, which orders the keys by
+ * count as they are incremented, so recording an operation is O(1) and the top keys are listed in
+ * O(top), without sorting. By default the counts are exact and every key is kept. A listener
+ * created with a number of tracked keys works in streaming mode instead: memory stays bounded no
+ * matter how many distinct keys are seen, and the count of a tracked key may be overestimated by
+ * the counts of the keys it replaced. Keys that account for more than 1 / trackedKeys of the
+ * operations are always reported.
+ *
+ * <p>Keys with equal counts are listed in the order in which they reached that count, earliest
+ * first; after a halving, the keys that had the higher count come first. This differs from the
+ * former implementation, which re-sorted its map on every query and so listed ties in the order of
+ * the previous ranking, with the keys first seen since then last, in hash order.
+ *
+ * <p>Counts accumulate from the creation of the listener, unless a half-life is set: the counts
+ * are then halved every half-life, so the stats reflect the current traffic and keys that are no
+ * longer used are eventually forgotten.
+ *
  * @param <K>
  * @param <V>
  */
 public class KeyStatsListener<K, V> implements CacheListener<K, V> {
+    public static final long NO_DECAY = -1;
 
-    private HashMap<K, Integer> hits = new HashMap<>();
-    private HashMap<K, Integer> misses = new HashMap<>();
-    private HashMap<K, Integer> pushes = new HashMap<>();
+    private static final int MAXIMUM_HALVINGS = Integer.SIZE;
 
+    private final StreamSummary<K> hits;
+    private final StreamSummary<K> misses;
+    private final StreamSummary<K> pushes;
+    private long halfLifeNanos = NO_DECAY;
+    private long nextDecay;
+
+    /**
+     * Create a listener that keeps exact counts for every key.
+     */
+    public KeyStatsListener() {
+        this.hits = new StreamSummary<>();
+        this.misses = new StreamSummary<>();
+        this.pushes = new StreamSummary<>();
+    }
+
+    /**
+     * Create a listener in streaming mode, that tracks at most @trackedKeys keys for each kind
+     * of operation.
+     *
+     * @param trackedKeys the number of keys tracked for hits, misses and updates
+     */
+    public KeyStatsListener(final int trackedKeys) {
+        this.hits = new StreamSummary<>(trackedKeys);
+        this.misses = new StreamSummary<>(trackedKeys);
+        this.pushes = new StreamSummary<>(trackedKeys);
+    }
+
+    /**
+     * Halve all the counts every @halfLifeMillis, or stop decaying them if it is NO_DECAY.
+     *
+     * @param halfLifeMillis the half-life of the counts, in milliseconds, or NO_DECAY
+     */
+    public void setHalfLife(final long halfLifeMillis) {
+        if (halfLifeMillis == NO_DECAY) {
+            halfLifeNanos = NO_DECAY;
+            return;
+        }
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Invalid half-life: " + halfLifeMillis);
+        }
+        halfLifeNanos = TimeUnit.MILLISECONDS.toNanos(halfLifeMillis);
+        nextDecay = System.nanoTime() + halfLifeNanos;
+    }
 
     /**
      * Get the number of hits for a key.
@@ -32,7 +85,8 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of hits
      */
     public int getKeyHits(final K key) {
-        return get(hits, key);
+        decay();
+        return hits.getCount(key);
     }
 
     /**
@@ -42,7 +96,8 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of misses
      */
     public int getKeyMisses(final K key) {
-        return get(misses, key);
+        decay();
+        return misses.getCount(key);
     }
 
     /**
@@ -52,7 +107,8 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of updates
      */
     public int getKeyUpdates(final K key) {
-        return get(pushes, key);
+        decay();
+        return pushes.getCount(key);
     }
 
     /**
@@ -62,8 +118,8 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return the list of keys
      */
     public List<K> getTopHitKeys(final int top) {
-        hits = sortByValues(hits);
-        return listTop(hits, top);
+        decay();
+        return hits.top(top);
     }
 
     /**
@@ -73,9 +129,8 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return the list of keys
      */
     public List<K> getTopMissedKeys(final int top) {
-        misses = sortByValues(misses);
-        return listTop(misses, top);
-
+        decay();
+        return misses.top(top);
     }
 
     /**
@@ -85,97 +140,48 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return the list of keys
      */
     public List<K> getTopUpdatedKeys(final int top) {
-        pushes = sortByValues(pushes);
-        return listTop(pushes, top);
+        decay();
+        return pushes.top(top);
     }
 
     @Override
     public final void onHit(final K key) {
-        find(hits, key);
+        decay();
+        hits.increment(key);
     }
 
     @Override
     public final void onMiss(final K key) {
-        find(misses, key);
+        decay();
+        misses.increment(key);
     }
 
     @Override
     public final void onPut(final K key, final V value) {
-        find(pushes, key);
+        decay();
+        pushes.increment(key);
     }
 
     /**
-     * Functie ce imi va actualiza contorul pentru fisierul dorit, in cazul in care acesta exista,
-     * sau il va adauga pentru urmarirea statisticii.
-     *
-     * @param map hit/miss/push
-     * @param key Adresa fisierului dorit
+     * Injumatateste contoarele pentru fiecare perioada de injumatatire trecuta de la ultima
+     * actualizare. Dupa suficiente perioade toate contoarele ajung la 0.
      */
-    private void find(final HashMap<K, Integer> map, final K key) {
-        if (map.containsKey(key)) {
-            map.put(key, map.get(key) + 1);
+    private void decay() {
+        if (halfLifeNanos == NO_DECAY) {
             return;
         }
-        map.put(key, 1);
-    }
-
-    /**
-     * Returneaza numarul de miss/put/hit pentru fisierul dorit.
-     *
-     * @param map miss/hit/push
-     * @param key Fisierul dorit
-     * @return numarul de miss/put/hit
-     */
-    private int get(final HashMap<K, Integer> map, final K key) {
-        if (map.containsKey(key)) {
-            return map.get(key);
-        }
-        return 0;
-    }
 
-    /**
-     * Creerea listei cu cele mai accesate fisiere pe baza statisticii urmarite.
-     *
-     * @param map miss/push/hit
-     * @param top Numarul maxim de elemente dorite.
-     * @return Lista de fisiere.
-     */
-    private List<K> listTop(final HashMap<K, Integer> map, final int top) {
-        ArrayList<K> list = new ArrayList<>();
-        int i = 0;
-        Iterator<Map.Entry<K, Integer>> iterator = map.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<K, Integer> me = iterator.next();
-            list.add(me.getKey());
-            i++;
-            if (i == top) {
-                break;
-            }
+        long elapsed = System.nanoTime() - nextDecay;
+        if (elapsed < 0) {
+            return;
         }
-        return list;
-    }
 
-    /**
-     * Comparatorul ce imi ordoneaza fisierele in ordine descrescatoare in functie de contor.
-     *
-     * @param map hit/miss/put.
-     * @return HashMap-ul ordonat
-     */
-    private HashMap<K, Integer> sortByValues(final HashMap<K, Integer> map) {
-        List list = new LinkedList(map.entrySet());
-        // Comparatorul
-        Collections.sort(list, new Comparator() {
-            public int compare(final Object o1, final Object o2) {
-                return ((Comparable) ((Map.Entry) (o2)).getValue())
-                        .compareTo(((Map.Entry) (o1)).getValue());
-            }
-        });
-
-        HashMap sortedHashMap = new LinkedHashMap();
-        for (Iterator it = list.iterator(); it.hasNext();) {
-            Map.Entry entry = (Map.Entry) it.next();
-            sortedHashMap.put(entry.getKey(), entry.getValue());
+        long halvings = elapsed / halfLifeNanos + 1;
+        for (long i = 0; i < Math.min(halvings, MAXIMUM_HALVINGS); i++) {
+            hits.halve();
+            misses.halve();
+            pushes.halve();
         }
-        return sortedHashMap;
+        nextDecay += halvings * halfLifeNanos;
     }
 }
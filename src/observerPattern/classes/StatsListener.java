@@ -2,24 +2,34 @@ package observerPattern.classes;
 
 import observerPattern.interfaces.CacheListener;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * The StatsListener collects hit / miss / update stats for a cache.
+ * The StatsListener collects hit / miss / update stats for a cache, along with evictions,
+ * expirations and loads. The counters are striped, so the listener can be shared by threads that
+ * access the cache concurrently without contending on a single memory location, and recording an
+ * event allocates nothing.
  *
  * @param <K>
  * @param <V>
  */
 public class StatsListener<K, V> implements CacheListener<K, V> {
-    private int hits = 0;
-    private int misses = 0;
-    private int pushes = 0;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
 
     /**
      * Get the number of hits for the cache.
      *
      * @return number of hits
      */
-    public int getHits() {
-        return hits;
+    public long getHits() {
+        return hits.sum();
     }
 
     /**
@@ -27,8 +37,8 @@ public class StatsListener<K, V> implements CacheListener<K, V> {
      *
      * @return number of misses
      */
-    public int getMisses() {
-        return misses;
+    public long getMisses() {
+        return misses.sum();
     }
 
     /**
@@ -36,22 +46,56 @@ public class StatsListener<K, V> implements CacheListener<K, V> {
      *
      * @return number of updates
      */
-    public int getUpdates() {
-        return pushes;
+    public long getUpdates() {
+        return pushes.sum();
+    }
+
+    /**
+     * Take a snapshot of all the counters. The weighted size is not known to the listener and is
+     * reported as 0.
+     *
+     * @return the statistics
+     */
+    public CacheStats snapshot() {
+        return new CacheStats(hits.sum(), misses.sum(), pushes.sum(), evictions.sum(),
+                expirations.sum(), loadSuccesses.sum(), loadFailures.sum(), totalLoadTime.sum(),
+                0);
     }
 
     @Override
     public final void onHit(final K key) {
-        hits++;
+        hits.increment();
     }
 
     @Override
     public final void onMiss(final K key) {
-        misses++;
+        misses.increment();
     }
 
     @Override
     public final void onPut(final K key, final V value) {
-        pushes++;
+        pushes.increment();
+    }
+
+    @Override
+    public final void onEvict(final K key, final V value) {
+        evictions.increment();
+    }
+
+    @Override
+    public final void onExpire(final K key, final V value) {
+        expirations.increment();
+    }
+
+    @Override
+    public final void onLoadSuccess(final K key, final long loadNanos) {
+        loadSuccesses.increment();
+        totalLoadTime.add(loadNanos);
+    }
+
+    @Override
+    public final void onLoadFailure(final K key, final long loadNanos) {
+        loadFailures.increment();
+        totalLoadTime.add(loadNanos);
     }
 }
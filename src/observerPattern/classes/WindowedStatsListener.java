@@ -0,0 +1,200 @@
+package observerPattern.classes;
+
+import observerPattern.interfaces.CacheListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The WindowedStatsListener collects the same stats as the StatsListener, but only over a sliding
+ * window of recent time, so the reported totals reflect the current traffic. The window is split
+ * in a fixed number of slices, each with its own counters; a slice is reset when the window moves
+ * past it, so memory does not grow with time. The window slides one slice at a time: the stats
+ * cover the current slice plus the previous ones, up to the window length.
+ *
+ * <p>Like the StatsListener, the counters are striped and the listener can be shared by threads
+ * that access the cache concurrently. An event recorded exactly while its slice is being reset may
+ * be lost.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class WindowedStatsListener<K, V> implements CacheListener<K, V> {
+    public static final int DEFAULT_SLICES = 10;
+
+    private static final int HITS = 0;
+    private static final int MISSES = 1;
+    private static final int PUSHES = 2;
+    private static final int EVICTIONS = 3;
+    private static final int EXPIRATIONS = 4;
+    private static final int LOAD_SUCCESSES = 5;
+    private static final int LOAD_FAILURES = 6;
+    private static final int TOTAL_LOAD_TIME = 7;
+    private static final int COUNTERS = 8;
+
+    private final long sliceNanos;
+    private final Slice[] slices;
+
+    /**
+     * Create a listener over a window of @windowMillis, split in DEFAULT_SLICES slices.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     */
+    public WindowedStatsListener(final long windowMillis) {
+        this(windowMillis, DEFAULT_SLICES);
+    }
+
+    /**
+     * Create a listener over a window of @windowMillis, split in @sliceCount slices. More slices
+     * make the window slide more smoothly, at the cost of memory and slower reads.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     * @param sliceCount   the number of slices
+     */
+    public WindowedStatsListener(final long windowMillis, final int sliceCount) {
+        if (sliceCount <= 0) {
+            throw new IllegalArgumentException("Invalid slice count: " + sliceCount);
+        }
+        if (windowMillis < sliceCount) {
+            throw new IllegalArgumentException("Invalid window: " + windowMillis);
+        }
+
+        this.sliceNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis) / sliceCount;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * Get the number of hits in the window.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return sum(HITS, currentEpoch());
+    }
+
+    /**
+     * Get the number of misses in the window.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return sum(MISSES, currentEpoch());
+    }
+
+    /**
+     * Get the number of updates (put operations) in the window.
+     *
+     * @return number of updates
+     */
+    public long getUpdates() {
+        return sum(PUSHES, currentEpoch());
+    }
+
+    /**
+     * Take a snapshot of the counters in the window. The weighted size is not known to the
+     * listener and is reported as 0.
+     *
+     * @return the statistics
+     */
+    public CacheStats snapshot() {
+        long epoch = currentEpoch();
+        return new CacheStats(sum(HITS, epoch), sum(MISSES, epoch), sum(PUSHES, epoch),
+                sum(EVICTIONS, epoch), sum(EXPIRATIONS, epoch), sum(LOAD_SUCCESSES, epoch),
+                sum(LOAD_FAILURES, epoch), sum(TOTAL_LOAD_TIME, epoch), 0);
+    }
+
+    @Override
+    public final void onHit(final K key) {
+        currentSlice().counters[HITS].increment();
+    }
+
+    @Override
+    public final void onMiss(final K key) {
+        currentSlice().counters[MISSES].increment();
+    }
+
+    @Override
+    public final void onPut(final K key, final V value) {
+        currentSlice().counters[PUSHES].increment();
+    }
+
+    @Override
+    public final void onEvict(final K key, final V value) {
+        currentSlice().counters[EVICTIONS].increment();
+    }
+
+    @Override
+    public final void onExpire(final K key, final V value) {
+        currentSlice().counters[EXPIRATIONS].increment();
+    }
+
+    @Override
+    public final void onLoadSuccess(final K key, final long loadNanos) {
+        Slice slice = currentSlice();
+        slice.counters[LOAD_SUCCESSES].increment();
+        slice.counters[TOTAL_LOAD_TIME].add(loadNanos);
+    }
+
+    @Override
+    public final void onLoadFailure(final K key, final long loadNanos) {
+        Slice slice = currentSlice();
+        slice.counters[LOAD_FAILURES].increment();
+        slice.counters[TOTAL_LOAD_TIME].add(loadNanos);
+    }
+
+    private long currentEpoch() {
+        return Math.floorDiv(System.nanoTime(), sliceNanos);
+    }
+
+    /**
+     * Returneaza felia momentului curent. O felie ramasa dintr-o fereastra anterioara este
+     * golita inainte de a fi refolosita.
+     */
+    private Slice currentSlice() {
+        long epoch = currentEpoch();
+        Slice slice = slices[(int) Math.floorMod(epoch, (long) slices.length)];
+
+        if (slice.epoch != epoch) {
+            synchronized (slice) {
+                if (slice.epoch != epoch) {
+                    for (LongAdder counter : slice.counters) {
+                        counter.reset();
+                    }
+                    slice.epoch = epoch;
+                }
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * Aduna un contor din feliile ce apartin ferestrei ce se termina la @epoch.
+     */
+    private long sum(final int counter, final long epoch) {
+        long total = 0;
+        for (Slice slice : slices) {
+            long age = epoch - slice.epoch;
+            if (age >= 0 && age < slices.length) {
+                total += slice.counters[counter].sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Contoarele unei felii de timp, impreuna cu numarul feliei.
+     */
+    private static final class Slice {
+        private final LongAdder[] counters = new LongAdder[COUNTERS];
+        private volatile long epoch = Long.MIN_VALUE;
+
+        Slice() {
+            for (int i = 0; i < COUNTERS; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -12,4 +12,41 @@ public interface CacheListener<K, V> {
     void onMiss(K key);
 
     void onPut(K key, V value);
+
+    /**
+     * Called when an entry is removed to respect the capacity, the weight limit or the stale
+     * policy of the cache. Caches that do not keep their values on the heap report a null value.
+     *
+     * @param key   the key of the evicted entry
+     * @param value the value of the evicted entry, or null
+     */
+    default void onEvict(K key, V value) {
+    }
+
+    /**
+     * Called when an entry is removed because its expiration time passed.
+     *
+     * @param key   the key of the expired entry
+     * @param value the value of the expired entry
+     */
+    default void onExpire(K key, V value) {
+    }
+
+    /**
+     * Called after a missing value was loaded successfully.
+     *
+     * @param key       the key
+     * @param loadNanos the duration of the load, in nanoseconds
+     */
+    default void onLoadSuccess(K key, long loadNanos) {
+    }
+
+    /**
+     * Called after a missing value could not be loaded.
+     *
+     * @param key       the key
+     * @param loadNanos the duration of the failed load, in nanoseconds
+     */
+    default void onLoadFailure(K key, long loadNanos) {
+    }
 }
@@ -0,0 +1,115 @@
+package simulator;
+
+import simulator.classes.SimulatedCache;
+import simulator.classes.TraceChunk;
+import simulator.classes.TraceReader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Replays an access trace through several eviction policies at several capacities in a single
+ * pass, and prints the hit ratio and the throughput of each, so a cache can be sized from real
+ * logs. File contents are never read nor printed.
+ *
+ * <p>Usage: java simulator.Simulator trace [--format command|arc|lirs]
+ * [--policies fifo,lru,tiny_lfu,arc,time] [--capacities 100,1000,10000] [--ttl millis]
+ */
+public final class Simulator {
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final double PERCENT = 100.0;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String DEFAULT_POLICIES = "fifo,lru,tiny_lfu,arc";
+    private static final String DEFAULT_CAPACITIES = "100,1000,10000";
+    private static final String NO_TIME_TO_LIVE = "-1";
+
+    private Simulator() {
+
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Missing path to trace file.");
+        }
+
+        String format = "command";
+        String policies = DEFAULT_POLICIES;
+        String capacities = DEFAULT_CAPACITIES;
+        String timeToLive = NO_TIME_TO_LIVE;
+
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            switch (args[i]) {
+                case "--format":
+                    format = args[i + 1];
+                    break;
+                case "--policies":
+                    policies = args[i + 1];
+                    break;
+                case "--capacities":
+                    capacities = args[i + 1];
+                    break;
+                case "--ttl":
+                    timeToLive = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long timeToLiveMillis = Long.parseLong(timeToLive);
+        ArrayList<SimulatedCache> caches = new ArrayList<>();
+        for (String policyName : policies.split(",")) {
+            SimulatedCache.Policy policy = SimulatedCache.Policy.valueOf(
+                    policyName.trim().toUpperCase(Locale.ROOT));
+            if (policy == SimulatedCache.Policy.TIME && timeToLiveMillis < 0) {
+                throw new IllegalArgumentException("The TIME policy requires --ttl");
+            }
+            for (String capacity : capacities.split(",")) {
+                caches.add(new SimulatedCache(policy, Integer.parseInt(capacity.trim()),
+                        timeToLiveMillis));
+            }
+        }
+
+        TraceReader.Format traceFormat = TraceReader.Format.valueOf(
+                format.toUpperCase(Locale.ROOT));
+        TraceChunk chunk = new TraceChunk(CHUNK_SIZE);
+        long events = 0;
+        long start = System.nanoTime();
+
+        try (TraceReader reader = new TraceReader(Paths.get(args[0]), traceFormat)) {
+            while (reader.read(chunk) > 0) {
+                events += chunk.size();
+                for (SimulatedCache cache : caches) {
+                    cache.replay(chunk);
+                }
+            }
+        }
+
+        printResults(caches, events, System.nanoTime() - start);
+    }
+
+    /**
+     * Afiseaza cate o linie pentru fiecare politica si capacitate, astfel incat liniile unei
+     * politici sa formeze curba ratei de hit in functie de capacitate.
+     */
+    private static void printResults(final ArrayList<SimulatedCache> caches, final long events,
+                                     final long elapsedNanos) {
+        System.out.println(String.format(Locale.ROOT, "%d events replayed in %.2f s", events,
+                elapsedNanos / NANOS_PER_SECOND));
+        System.out.println(String.format(Locale.ROOT, "%-9s %10s %12s %12s %10s %14s",
+                "policy", "capacity", "hits", "misses", "hit ratio", "ops/s"));
+
+        for (SimulatedCache cache : caches) {
+            long nanos = Math.max(1, cache.getReplayNanos());
+            System.out.println(String.format(Locale.ROOT, "%-9s %10d %12d %12d %9.2f%% %14.0f",
+                    cache.getPolicy().name().toLowerCase(Locale.ROOT), cache.getCapacity(),
+                    cache.getHits(), cache.getMisses(), cache.getHitRatio() * PERCENT,
+                    events * NANOS_PER_SECOND / nanos));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package simulator.classes;
+
+import cachingSystem.classes.ARCCache;
+import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.ObservableCache;
+import cachingSystem.classes.ObservableFIFOCache;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.classes.TinyLFUCache;
+import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Ticker;
+import dataStructures.classes.Pair;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * One eviction policy at one capacity, fed with the events of a trace. Reads that miss store the
+ * key, as a file cache does when it loads a file; writes store the key without counting as a hit
+ * or a miss. Values are never materialized, so only the keys take memory. The TIME policy reads
+ * the simulated clock of the trace, so entries expire as they would have when it was recorded.
+ */
+public final class SimulatedCache {
+    private static final Object VALUE = Boolean.TRUE;
+
+    /**
+     * The policies that can be simulated.
+     */
+    public enum Policy {
+        FIFO,
+        LRU,
+        TINY_LFU,
+        ARC,
+        TIME,
+    }
+
+    private final Policy policy;
+    private final int capacity;
+    private final ObservableCache<Object, Object> cache;
+    private long currentTime;
+    private long hits;
+    private long misses;
+    private long writes;
+    private long replayNanos;
+
+    /**
+     * Create a simulated cache.
+     *
+     * @param policy           the eviction policy
+     * @param capacity         the number of entries kept by the cache
+     * @param timeToLiveMillis the time after which the entries of a TIME cache expire if they
+     *                         are not accessed; ignored by the other policies
+     */
+    public SimulatedCache(final Policy policy, final int capacity, final long timeToLiveMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+
+        this.policy = policy;
+        this.capacity = capacity;
+        this.cache = createCache(policy, capacity, timeToLiveMillis);
+
+        cache.setCacheListener(new CacheListener<Object, Object>() {
+            @Override
+            public void onHit(final Object key) {
+            }
+
+            @Override
+            public void onMiss(final Object key) {
+            }
+
+            @Override
+            public void onPut(final Object key, final Object value) {
+            }
+        });
+        cache.setStalePolicy(new CacheStalePolicy<Object, Object>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(final Pair<Object, Object> entry) {
+                return cache.size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * Replay the events of @chunk.
+     *
+     * @param chunk the events
+     */
+    public void replay(final TraceChunk chunk) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < chunk.size; i++) {
+            Object key = chunk.keys[i];
+            currentTime = chunk.times[i];
+
+            if (chunk.writes[i]) {
+                cache.put(key, VALUE);
+                writes++;
+            } else if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, VALUE);
+                misses++;
+            }
+        }
+        replayNanos += System.nanoTime() - start;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Get the fraction of the reads that hit.
+     *
+     * @return the hit ratio, between 0 and 1
+     */
+    public double getHitRatio() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    /**
+     * Get the time spent replaying the events.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    /**
+     * Creeaza cache-ul politicii. Cache-ul TIME foloseste ceasul simulat al trace-ului.
+     */
+    private ObservableCache<Object, Object> createCache(final Policy cachePolicy,
+                                                        final int cacheCapacity,
+                                                        final long timeToLiveMillis) {
+        switch (cachePolicy) {
+            case FIFO:
+                return new ObservableFIFOCache<>();
+            case LRU:
+                return new LRUCache<>();
+            case TINY_LFU:
+                return new TinyLFUCache<>(cacheCapacity);
+            case ARC:
+                return new ARCCache<>(cacheCapacity);
+            case TIME:
+                TimeAwareCache<Object, Object> timeAwareCache = new TimeAwareCache<>();
+                timeAwareCache.setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return currentTime;
+                    }
+                });
+                timeAwareCache.setExpirePolicy(timeToLiveMillis);
+                return timeAwareCache;
+            default:
+                throw new IllegalArgumentException("Unsupported policy: " + cachePolicy);
+        }
+    }
+}
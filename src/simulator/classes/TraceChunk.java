@@ -0,0 +1,43 @@
+package simulator.classes;
+
+/**
+ * A reusable batch of trace events, filled by a TraceReader and replayed by every simulated
+ * cache in turn. Replaying a batch at a time keeps the trace streaming while every cache runs a
+ * tight loop, so its throughput can be timed without reading the clock on each access.
+ */
+public final class TraceChunk {
+    final Object[] keys;
+    final boolean[] writes;
+    final long[] times;
+    int size;
+
+    /**
+     * Create an empty chunk.
+     *
+     * @param capacity the maximum number of events in the chunk
+     */
+    public TraceChunk(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid chunk capacity: " + capacity);
+        }
+        this.keys = new Object[capacity];
+        this.writes = new boolean[capacity];
+        this.times = new long[capacity];
+    }
+
+    /**
+     * Get the number of events in the chunk.
+     *
+     * @return the number of events
+     */
+    public int size() {
+        return size;
+    }
+
+    void add(final Object key, final boolean write, final long time) {
+        keys[size] = key;
+        writes[size] = write;
+        times[size] = time;
+        size++;
+    }
+}
@@ -0,0 +1,157 @@
+package simulator.classes;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads an access trace incrementally, a chunk of events at a time, so traces much larger than
+ * the memory can be replayed. Three formats are supported:
+ * <ul>
+ *     <li>COMMAND: the command files of Main; get and put commands are accesses and delay
+ *     commands advance the simulated clock, while the other commands are ignored;</li>
+ *     <li>ARC: the block traces of the ARC paper, whose lines hold the first block, the number of
+ *     blocks and two ignored fields;</li>
+ *     <li>LIRS: the block traces of the LIRS paper, with one block number per line.</li>
+ * </ul>
+ * Blocks are identified by Long keys and files by String keys.
+ */
+public final class TraceReader implements Closeable {
+    private static final String GET_COMMAND = "get";
+    private static final String PUT_COMMAND = "put";
+    private static final String DELAY_COMMAND = "delay";
+
+    /**
+     * The format of a trace.
+     */
+    public enum Format {
+        COMMAND,
+        ARC,
+        LIRS,
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private long currentTime;
+    private long pendingBlock;
+    private long pendingBlocks;
+
+    /**
+     * Open a trace.
+     *
+     * @param path   the path of the trace
+     * @param format the format of the trace
+     * @throws IOException if the trace cannot be opened
+     */
+    public TraceReader(final Path path, final Format format) throws IOException {
+        this.reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        this.format = format;
+    }
+
+    /**
+     * Read the next events of the trace into @chunk, replacing its previous contents.
+     *
+     * @param chunk the chunk to fill
+     * @return the number of events read, 0 at the end of the trace
+     * @throws IOException if the trace cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public int read(final TraceChunk chunk) throws IOException {
+        chunk.size = 0;
+
+        while (chunk.size < chunk.keys.length) {
+            if (pendingBlocks > 0) {
+                chunk.add(pendingBlock++, false, currentTime);
+                pendingBlocks--;
+                continue;
+            }
+
+            String line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            switch (format) {
+                case COMMAND:
+                    parseCommand(line, chunk);
+                    break;
+                case ARC:
+                    parseArcLine(line);
+                    break;
+                case LIRS:
+                    parseLirsLine(line, chunk);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown format: " + format);
+            }
+        }
+        return chunk.size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Interpreteaza o comanda get/put/delay. Cheia este a doua componenta a liniei.
+     */
+    private void parseCommand(final String line, final TraceChunk chunk) {
+        int commandEnd = line.indexOf(' ');
+        if (commandEnd < 0) {
+            return;
+        }
+
+        int keyEnd = line.indexOf(' ', commandEnd + 1);
+        String argument = keyEnd < 0 ? line.substring(commandEnd + 1)
+                : line.substring(commandEnd + 1, keyEnd);
+
+        if (line.startsWith(GET_COMMAND) && commandEnd == GET_COMMAND.length()) {
+            chunk.add(argument, false, currentTime);
+        } else if (line.startsWith(PUT_COMMAND) && commandEnd == PUT_COMMAND.length()) {
+            chunk.add(argument, true, currentTime);
+        } else if (line.startsWith(DELAY_COMMAND) && commandEnd == DELAY_COMMAND.length()) {
+            currentTime += TimeUnit.MILLISECONDS.toNanos(parseNumber(argument, line));
+        }
+    }
+
+    /**
+     * O linie ARC descrie @count blocuri consecutive, adaugate treptat in bucati.
+     */
+    private void parseArcLine(final String line) {
+        int firstEnd = line.indexOf(' ');
+        if (firstEnd < 0) {
+            throw new IllegalArgumentException("Malformed ARC line: " + line);
+        }
+        int secondEnd = line.indexOf(' ', firstEnd + 1);
+
+        pendingBlock = parseNumber(line.substring(0, firstEnd), line);
+        pendingBlocks = parseNumber(secondEnd < 0 ? line.substring(firstEnd + 1)
+                : line.substring(firstEnd + 1, secondEnd), line);
+    }
+
+    /**
+     * Liniile LIRS ce nu sunt numere, de exemplu marcajul "*", sunt ignorate.
+     */
+    private void parseLirsLine(final String line, final TraceChunk chunk) {
+        if (Character.isDigit(line.charAt(0))) {
+            chunk.add(parseNumber(line, line), false, currentTime);
+        }
+    }
+
+    private static long parseNumber(final String number, final String line) {
+        try {
+            return Long.parseLong(number.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed trace line: " + line, e);
+        }
+    }
+}